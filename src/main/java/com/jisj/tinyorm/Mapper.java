@@ -11,4 +11,16 @@ import java.sql.SQLException;
  */
 @FunctionalInterface
     public interface Mapper<T> extends ThrowingFunction<ResultSet, T, SQLException> {
+
+    /**
+     * Gives the mapper bound to the columns of the specified {@code ResultSet}.
+     * <p>Called once per {@code ResultSet} before the first row. The default implementation returns this mapper</p>
+     *
+     * @param rs executed result set
+     * @return mapper for the rows of the specified result set
+     * @throws SQLException any database exception
+     */
+    default Mapper<T> bind(ResultSet rs) throws SQLException {
+        return this;
+    }
     }
\ No newline at end of file
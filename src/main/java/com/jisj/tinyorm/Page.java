@@ -0,0 +1,77 @@
+package com.jisj.tinyorm;
+
+import com.jisj.tinyorm.function.ThrowingFunction;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Page of the keyset pagination
+ *
+ * @param items page items, immutable
+ * @param next  key of the last item, the cursor of the next page, or {@code null} if it is the last page
+ * @param <T>   item type
+ * @param <K>   key type
+ */
+public record Page<T, K>(List<T> items, K next) {
+
+    /**
+     * Creates the page from the rows read with the limit greater by one than the page size
+     *
+     * @param rows  read rows
+     * @param limit page size
+     * @param key   key of the row
+     * @param <T>   item type
+     * @param <K>   key type
+     * @return page with the first {@code limit} rows, with the next cursor if there are more rows
+     */
+    public static <T, K> Page<T, K> of(List<T> rows, int limit, Function<? super T, ? extends K> key) {
+        if (rows.size() <= limit)
+            return new Page<>(List.copyOf(rows), null);
+        List<T> items = List.copyOf(rows.subList(0, limit));
+        return new Page<>(items, key.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Gives the lazy stream of the pages. The next page is read when the stream requests it
+     *
+     * @param loader page loader by the cursor, {@code null} cursor for the first page
+     * @param <T>    item type
+     * @param <K>    key type
+     * @return pages stream, from the first page to the last one
+     */
+    public static <T, K> Stream<Page<T, K>> stream(ThrowingFunction<K, Page<T, K>, SQLException> loader) {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Page<T, K>>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+            private Page<T, K> last;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Page<T, K>> action) {
+                if (last != null && !last.hasNext())
+                    return false;
+                try {
+                    last = loader.apply(last == null ? null : last.next());
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+                action.accept(last);
+                return true;
+            }
+        }, false);
+    }
+
+    /**
+     * Checks the next page exists
+     *
+     * @return {@code true} if it is not the last page
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jisj.tinyorm;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Bind function from specified object to {@code PreparedStatement} parameters
+ * @param <T> bound object type
+ */
+@FunctionalInterface
+public interface ParameterBinder<T> {
+    /**
+     * Sets the object values to the statement parameters starting from the specified position
+     *
+     * @param st       prepared statement
+     * @param position first parameter index
+     * @param value    bound object
+     * @return next parameter index after the bound values
+     * @throws SQLException if a database access error occurs or this method is called on a closed {@code PreparedStatement}
+     */
+    int bind(PreparedStatement st, int position, T value) throws SQLException;
+}
@@ -1,12 +1,20 @@
 package com.jisj.tinyorm;
 
+import com.jisj.tinyorm.cache.QueryCache;
+import com.jisj.tinyorm.cache.SingleFlight;
+import com.jisj.tinyorm.dao.Dialect;
 import com.jisj.tinyorm.utils.Jdbc;
+import com.jisj.tinyorm.utils.ResultPublisher;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
@@ -16,10 +24,15 @@ import java.util.stream.Stream;
  */
 public class Query<T> {
     private static final Logger log = Logger.getLogger(Query.class.getName());
+    private static final SingleFlight<List<Object>, List<?>> FLIGHT = new SingleFlight<>();
     private final DataSource dataSource;
     private final Mapper<T> mapper;
     private final String query;
     private final Object[] args;
+    private int fetchSize;
+    private QueryCache cache;
+    private boolean coalescing;
+    private List<String> tables = List.of();
 
     /**
      * Create new query instance
@@ -39,31 +52,184 @@ public class Query<T> {
         this.args = args;
     }
 
+    /**
+     * Sets the count of rows fetched from the database in one round trip
+     *
+     * @param fetchSize rows count, 0 for the driver default
+     * @return this query
+     * @throws IllegalArgumentException when fetch size is negative
+     */
+    public Query<T> setFetchSize(int fetchSize) {
+        if (fetchSize < 0)
+            throw new IllegalArgumentException("Unexpected fetch size: " + fetchSize);
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Sets the result cache. The result is not cached inside the transaction of the query DataSource
+     *
+     * @param cache  query cache or {@code null} to disable the caching
+     * @param tables queried tables, their writes by the DAO with the same cache invalidate the result.
+     *               The result without the tables is invalidated by the writes of any table
+     * @return this query
+     */
+    public Query<T> setCache(QueryCache cache, String... tables) {
+        this.cache = cache;
+        this.tables = List.of(tables);
+        return this;
+    }
+
+    /**
+     * Sets the coalescing of {@link Query#toList()}. The concurrent queries with the same DataSource, mapper,
+     * SQL and arguments share one execution and receive the same immutable list.
+     * The queries inside the transaction are not coalesced
+     *
+     * @param coalescing {@code true} to coalesce the queries
+     * @return this query
+     */
+    public Query<T> setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+        return this;
+    }
+
     /**
      * Execs the query with result to list
      *
-     * @return result list
+     * @return result list, immutable
      */
     public List<T> toList() {
-        return execToStream().toList();
+        if (isCached())
+            return cache.get(Arrays.asList(dataSource, mapper), query, args, tables, this::load);
+        return load();
+    }
+
+    private boolean isCached() {
+        return cache != null && Transaction.current(dataSource).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> load() {
+        if (coalescing && Transaction.current(dataSource).isEmpty())
+            return (List<T>) FLIGHT.execute(Arrays.asList(dataSource, mapper, query, Arrays.asList(args)), this::execute);
+        return execute();
+    }
+
+    private List<T> execute() {
+        try (Stream<T> stream = execToStream()) {
+            return stream.toList();
+        }
     }
 
     /**
      * Execs the query with result to stream
+     * <p>The connection is released after processing the whole stream or by {@link Stream#close()}.
+     * Use try-with-resources statement for the stream that is not fully processed</p>
      *
      * @return result stream
      */
     public Stream<T> toStream() {
+        if (isCached())
+            return toList().stream();
         return execToStream();
     }
 
+    /**
+     * Reads the page of the query result ordered by the key column. The query is wrapped
+     * by {@code SELECT * FROM (query) WHERE keyColumn > after ORDER BY keyColumn}, the page is selected
+     * by the key index and its cost does not depend on its position
+     *
+     * @param keyColumn unique key column of the query result
+     * @param key       key of the result item
+     * @param after     key of the last item of the previous page, {@code null} for the first page
+     * @param limit     page size
+     * @param <K>       key type
+     * @return page with the key of the last item as the next cursor
+     * @throws IllegalArgumentException when limit less than 1
+     */
+    public <K> Page<T, K> page(String keyColumn, Function<? super T, ? extends K> key, K after, int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Unexpected page size: " + limit);
+        try {
+            Connection con = Jdbc.getConnection(dataSource);
+            try {
+                String limitClause = Dialect.detect(con.getMetaData()).limitClause();
+                final String SQL = after == null
+                        ? "SELECT * FROM (%s) q ORDER BY %s %s".formatted(query, keyColumn, limitClause)
+                        : "SELECT * FROM (%s) q WHERE %s>? ORDER BY %s %s".formatted(query, keyColumn, keyColumn, limitClause);
+                Object[] pageArgs = Arrays.copyOf(args, args.length + (after == null ? 1 : 2));
+                if (after != null)
+                    pageArgs[args.length] = after;
+                pageArgs[pageArgs.length - 1] = limit + 1;
+                PreparedStatement st = con.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                try {
+                    Jdbc.setParameters(SQL, st, pageArgs);
+                } catch (SQLException | RuntimeException e) {
+                    st.close();
+                    throw e;
+                }
+                log.fine(st::toString);
+                try (Stream<T> rows = Jdbc.execToStream(con, st, mapper)) {
+                    return Page.of(rows.toList(), limit, key);
+                }
+            } catch (SQLException | RuntimeException e) {
+                con.close();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gives the lazy stream of the pages of the query result, see {@link Query#page(String, Function, Object, int)}
+     *
+     * @param keyColumn unique key column of the query result
+     * @param key       key of the result item
+     * @param limit     page size
+     * @param <K>       key type
+     * @return pages stream
+     * @throws IllegalArgumentException when limit less than 1
+     */
+    public <K> Stream<Page<T, K>> pages(String keyColumn, Function<? super T, ? extends K> key, int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Unexpected page size: " + limit);
+        return Page.stream(after -> page(keyColumn, key, after, limit));
+    }
+
+    /**
+     * Gives the publisher of the query result. Every subscription executes the query on its own connection
+     * and reads the rows on the demand of the subscriber, see {@link ResultPublisher}
+     *
+     * @return result publisher
+     */
+    public Flow.Publisher<T> toPublisher() {
+        return new ResultPublisher<>(dataSource, this::prepare, mapper);
+    }
+
+    private PreparedStatement prepare(Connection con) throws SQLException {
+        PreparedStatement st = con.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            if (fetchSize > 0)
+                st.setFetchSize(fetchSize);
+            Jdbc.setParameters(query, st, args);
+        } catch (SQLException | RuntimeException e) {
+            st.close();
+            throw e;
+        }
+        log.fine(st::toString);
+        return st;
+    }
+
     private Stream<T> execToStream() {
         try {
-            Connection con = dataSource.getConnection();
-            PreparedStatement st = con.prepareStatement(query);
-            Jdbc.setParameters(st, args);
-            log.fine(st::toString);
-            return Jdbc.execToStream(st, mapper);
+            Connection con = Jdbc.getConnection(dataSource);
+            try {
+                return Jdbc.execToStream(con, prepare(con), mapper);
+            } catch (SQLException | RuntimeException e) {
+                con.close();
+                throw e;
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
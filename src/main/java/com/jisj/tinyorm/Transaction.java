@@ -0,0 +1,198 @@
+package com.jisj.tinyorm;
+
+import com.jisj.tinyorm.function.ThrowingFunction;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Transaction scope, which shares one connection between the DAO and Query calls
+ * <p>The DAO and Query methods called inside the scope with the same DataSource take the transaction connection
+ * (see {@link com.jisj.tinyorm.utils.Jdbc#getConnection(DataSource)}). The transaction is committed once
+ * at the end of the scope and rolled back on the exception or by {@link Transaction#setRollbackOnly()}.
+ * The nested scope of the same DataSource joins the current transaction.</p>
+ * <pre>{@code
+ * Transaction.inTransaction(ds, tx -> {
+ *     daoA.insert(a);
+ *     daoB.insert(b);
+ *     return joinDao.insert(a.getId(), b.getId());
+ * });
+ * }</pre>
+ * <p>The scope is bound to the current thread</p>
+ */
+public final class Transaction {
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+    private final DataSource dataSource;
+    private final Connection connection;
+    private final Connection scopedConnection;
+    private final Transaction outer;
+    private volatile boolean active = true;
+    private boolean rollbackOnly;
+    private final List<Runnable> completionActions = new ArrayList<>();
+
+    private Transaction(DataSource dataSource, Connection connection, Transaction outer) {
+        this.dataSource = dataSource;
+        this.connection = connection;
+        this.outer = outer;
+        this.scopedConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> null;
+                    case "isClosed" -> !active || connection.isClosed();
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Transaction " + connection;
+                    case "commit", "rollback", "setAutoCommit" ->
+                            throw new SQLException("Connection is managed by the transaction scope");
+                    default -> {
+                        if (!active)
+                            throw new SQLException("Transaction is completed");
+                        try {
+                            yield method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Executes the work in the transaction of the specified DataSource
+     *
+     * @param dataSource DataSource
+     * @param work       transaction work
+     * @param <R>        result type
+     * @return work result
+     * @throws SQLException any database exception, the transaction is rolled back
+     */
+    public static <R> R inTransaction(DataSource dataSource, ThrowingFunction<Transaction, R, SQLException> work)
+            throws SQLException {
+        Optional<Transaction> current = current(dataSource);
+        if (current.isPresent())
+            return work.apply(current.get());
+
+        Transaction outer = CURRENT.get();
+        Throwable failure = null;
+        try (Connection con = dataSource.getConnection()) {
+            boolean autoCommit = con.getAutoCommit();
+            if (autoCommit)
+                con.setAutoCommit(false);
+            Transaction tx = new Transaction(dataSource, con, outer);
+            CURRENT.set(tx);
+            try {
+                R result = work.apply(tx);
+                if (tx.rollbackOnly)
+                    con.rollback();
+                else
+                    con.commit();
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                try {
+                    con.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                failure = e;
+                throw e;
+            } finally {
+                tx.active = false;
+                if (outer == null)
+                    CURRENT.remove();
+                else
+                    CURRENT.set(outer);
+                try {
+                    if (autoCommit)
+                        con.setAutoCommit(true);
+                } finally {
+                    tx.complete(failure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs all completion actions. The exceptions of the actions are suppressed by the exception of the transaction,
+     * otherwise the first one is thrown with the others suppressed
+     *
+     * @param failure exception of the transaction or {@code null}
+     */
+    private void complete(Throwable failure) {
+        RuntimeException error = null;
+        for (Runnable action : completionActions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                if (failure != null)
+                    failure.addSuppressed(e);
+                else if (error == null)
+                    error = e;
+                else
+                    error.addSuppressed(e);
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Gives the transaction of the specified DataSource, active in the current thread
+     *
+     * @param dataSource DataSource
+     * @return transaction or empty Optional
+     */
+    public static Optional<Transaction> current(DataSource dataSource) {
+        for (Transaction tx = CURRENT.get(); tx != null; tx = tx.outer)
+            if (tx.dataSource == dataSource)
+                return Optional.of(tx);
+        return Optional.empty();
+    }
+
+    /**
+     * Gives the transaction connection. The {@code close()} of the connection does nothing,
+     * {@code commit(), rollback(), setAutoCommit()} are not allowed
+     *
+     * @return transaction connection
+     */
+    public Connection getConnection() {
+        return scopedConnection;
+    }
+
+    /**
+     * Gives the transaction DataSource
+     *
+     * @return DataSource
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Registers the action executed after the commit or the rollback of the transaction
+     *
+     * @param action completion action
+     */
+    public void afterCompletion(Runnable action) {
+        completionActions.add(action);
+    }
+
+    /**
+     * Marks the transaction for the rollback at the end of the scope
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    /**
+     * Checks the transaction is marked for the rollback
+     *
+     * @return {@code true} if the transaction will be rolled back
+     */
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+}
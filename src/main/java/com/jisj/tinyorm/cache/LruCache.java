@@ -0,0 +1,214 @@
+package com.jisj.tinyorm.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Bounded concurrent cache with LRU eviction and time-to-live
+ * <p>The keys are spread over the segments, each segment is the access ordered map with own lock,
+ * so the concurrent calls with the different keys rarely wait for each other.
+ * The least recently used entry of the segment is evicted when the segment is full.
+ * The entry older than TTL is removed on the read</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LruCache<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Cache statistics
+     *
+     * @param hits        count of the found values
+     * @param misses      count of the not found or expired values
+     * @param evictions   count of the values removed by the size limit
+     * @param expirations count of the values removed by TTL
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations) {
+        /**
+         * Gives the ratio of the hits to the all requests
+         *
+         * @return hit rate from 0 to 1, or 0 if there were no requests
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    /**
+     * Creates the cache without TTL
+     *
+     * @param maxSize maximum count of the entries
+     */
+    public LruCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * Creates the cache
+     *
+     * @param maxSize maximum count of the entries
+     * @param ttl     time-to-live of the entry or {@code null} for the unlimited time
+     * @throws IllegalArgumentException when max size less than 1 or TTL is not positive
+     */
+    public LruCache(int maxSize, Duration ttl) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Unexpected cache size: " + maxSize);
+        if (ttl != null && (ttl.isNegative() || ttl.isZero()))
+            throw new IllegalArgumentException("Unexpected TTL: " + ttl);
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        int count = Integer.highestOneBit(Math.min(MAX_SEGMENTS, Math.max(1, maxSize / MAX_SEGMENTS)));
+        this.segments = newSegments(count);
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment<>(maxSize / count + (i < maxSize % count ? 1 : 0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Segment<K, V>[] newSegments(int count) {
+        return (Segment<K, V>[]) new Segment<?, ?>[count];
+    }
+
+    private Segment<K, V> segment(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * Gives the cached value
+     *
+     * @param key key
+     * @return value or {@code null} if the value not found or expired
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segment(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.created >= ttlNanos) {
+                segment.entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the value to the cache
+     *
+     * @param key   key
+     * @param value value, not {@code null}
+     */
+    public void put(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        segment.lock.lock();
+        try {
+            segment.entries.put(key, new Entry<>(value, System.nanoTime()));
+            if (segment.entries.size() > segment.capacity) {
+                Iterator<Entry<V>> eldest = segment.entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the value from the cache
+     *
+     * @param key key
+     */
+    public void invalidate(K key) {
+        Segment<K, V> segment = segment(key);
+        segment.lock.lock();
+        try {
+            segment.entries.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the values matching the predicate
+     *
+     * @param predicate value predicate
+     */
+    public void invalidateIf(Predicate<? super V> predicate) {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.values().removeIf(entry -> predicate.test(entry.value));
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes all values from the cache
+     */
+    public void invalidateAll() {
+        invalidateIf(value -> true);
+    }
+
+    /**
+     * Gives the count of the cached values, including expired ones
+     *
+     * @return entries count
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gives the cache statistics
+     *
+     * @return statistics snapshot
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private record Entry<V>(V value, long created) {
+    }
+
+    private static final class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final int capacity;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.jisj.tinyorm.cache;
+
+import com.jisj.tinyorm.function.ThrowingSupplier;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of the query results keyed by the result owner, SQL and arguments
+ * <p>Every result depends on the set of tables. The write to the table increments its version
+ * by {@link QueryCache#invalidateTable(String)}, the result cached with the previous version of any its table
+ * is not returned. The result without the tables depends on all tables. The cached lists are immutable
+ * and shared between the threads</p>
+ * <pre>{@code
+ * QueryCache cache = new QueryCache(1000, Duration.ofSeconds(10));
+ * dao.setQueryCache(cache);
+ * new Query<>(ds, mapper, "SELECT ...", 10).setCache(cache, "tblOrders", "tblItems").toList();
+ * }</pre>
+ */
+public class QueryCache {
+    private static final String ALL_TABLES = "*";
+    private static final Pattern IDENTIFIER_QUOTES = Pattern.compile("[\"`\\[\\]]");
+    private final LruCache<Key, Entry> entries;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Key(Object owner, String sql, List<Object> args) {
+    }
+
+    private record Entry(List<?> result, String[] tables, long[] versions) {
+    }
+
+    /**
+     * Creates the cache without TTL
+     *
+     * @param maxSize maximum count of the cached results
+     */
+    public QueryCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * Creates the cache
+     *
+     * @param maxSize maximum count of the cached results
+     * @param ttl     time-to-live of the result or {@code null} for the unlimited time
+     * @throws IllegalArgumentException when max size less than 1 or TTL is not positive
+     */
+    public QueryCache(int maxSize, Duration ttl) {
+        this.entries = new LruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Gives the cached result or loads and caches it
+     *
+     * @param owner  result owner, the source of the rows and their mapping (e.g. the DAO instance
+     *               or the DataSource and the mapper), the results of the other owners are not shared
+     * @param sql    SQL query
+     * @param args   query arguments
+     * @param tables queried tables, case-insensitive, the identifier quotes are ignored. The empty collection
+     *               means all tables
+     * @param loader result loader, called on the cache miss
+     * @param <T>    result element type
+     * @param <E>    loader exception type
+     * @return immutable result list
+     * @throws E loader exception
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> List<T> get(Object owner, String sql, Object[] args, Collection<String> tables,
+                                                ThrowingSupplier<List<T>, E> loader) throws E {
+        Key key = new Key(owner, sql, args == null ? List.of() : Arrays.asList(args.clone()));
+        Entry entry = entries.get(key);
+        if (entry != null && isCurrent(entry)) {
+            hits.increment();
+            return (List<T>) entry.result();
+        }
+        misses.increment();
+        String[] names = tables.isEmpty()
+                ? new String[]{ALL_TABLES}
+                : tables.stream().map(QueryCache::normalize).distinct().toArray(String[]::new);
+        long[] snapshot = new long[names.length];
+        for (int i = 0; i < names.length; i++)
+            snapshot[i] = version(names[i]).get();
+        List<T> result = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        entries.put(key, new Entry(result, names, snapshot));
+        return result;
+    }
+
+    private boolean isCurrent(Entry entry) {
+        for (int i = 0; i < entry.tables().length; i++)
+            if (version(entry.tables()[i]).get() != entry.versions()[i])
+                return false;
+        return true;
+    }
+
+    private AtomicLong version(String table) {
+        return versions.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    /**
+     * Gives the table name without the identifier quotes in lower case, so the quoted name of the case-sensitive
+     * table and the unquoted name are the same table
+     */
+    private static String normalize(String table) {
+        return IDENTIFIER_QUOTES.matcher(table).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Invalidates the results depending on the table
+     *
+     * @param table table name, case-insensitive, the identifier quotes are ignored
+     */
+    public void invalidateTable(String table) {
+        version(normalize(table)).incrementAndGet();
+        version(ALL_TABLES).incrementAndGet();
+    }
+
+    /**
+     * Removes all cached results
+     */
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Gives the count of the cached results, including stale ones
+     *
+     * @return results count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gives the cache statistics. The stale result is counted as the miss
+     *
+     * @return statistics snapshot
+     */
+    public LruCache.Stats stats() {
+        LruCache.Stats stats = entries.stats();
+        return new LruCache.Stats(hits.sum(), misses.sum(), stats.evictions(), stats.expirations());
+    }
+}
@@ -0,0 +1,90 @@
+package com.jisj.tinyorm.cache;
+
+import com.jisj.tinyorm.function.ThrowingSupplier;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalescing of the concurrent identical calls
+ * <p>The first call of the key executes the loader, the concurrent calls of the same key wait for it
+ * and receive its result or exception. The key is released when the execution completes,
+ * so the next call executes the loader again</p>
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Executes the loader or joins the execution of the same key in progress
+     *
+     * @param key    call key
+     * @param loader result loader
+     * @param <E>    loader exception type
+     * @return loader result
+     * @throws E loader exception, also thrown to all joined callers
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> V execute(K key, ThrowingSupplier<? extends V, E> loader) throws E {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, call);
+        if (running != null) {
+            shared.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime)
+                    throw runtime;
+                if (cause instanceof Error error)
+                    throw error;
+                throw (E) cause;
+            }
+        }
+        executions.increment();
+        try {
+            V result = loader.get();
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Gives the count of the calls executing the loader
+     *
+     * @return executions count
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * Gives the count of the calls received the result of the other call
+     *
+     * @return shared results count
+     */
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    /**
+     * Gives the count of the keys in progress
+     *
+     * @return executing keys count
+     */
+    public int getInFlightCount() {
+        return calls.size();
+    }
+}
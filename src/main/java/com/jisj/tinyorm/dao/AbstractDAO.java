@@ -21,6 +21,10 @@ abstract class AbstractDAO<T, ID> {
      * Default DELETE record query. Parameters: {@code tableName, idColumnName}
      */
     protected static final String DELETE_BY_ID_SQL = "DELETE FROM %s WHERE %s=?";
+    /**
+     * Default count of records in one JDBC batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
     /**
      * Mapper {@code ResultSet → entity<T>}
      */
@@ -53,6 +57,18 @@ abstract class AbstractDAO<T, ID> {
      * Delete SQL query
      */
     protected String deleteStatement;
+    /**
+     * Count of records in one JDBC batch
+     */
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+    /**
+     * Database dialect, detected on the first usage if not set
+     */
+    protected volatile Dialect dialect;
+    /**
+     * Fetch size of the select statements, 0 for the driver default
+     */
+    protected int fetchSize;
 
     /**
      * Sets the default select statement {@link AbstractDAO#SELECT_BY_ID_SQL} from {@link AbstractDAO#tableName} and {@link AbstractDAO#idColumnName}
@@ -87,6 +103,97 @@ abstract class AbstractDAO<T, ID> {
         return mapper;
     }
 
+    /**
+     * Sets the count of records in one JDBC batch. Each batch is executed with own connection and transaction
+     *
+     * @param batchSize records count, default {@link AbstractDAO#DEFAULT_BATCH_SIZE}
+     * @throws IllegalArgumentException when batch size less than 1
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Unexpected batch size: " + batchSize);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gives the count of records in one JDBC batch
+     *
+     * @return batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the count of rows fetched from the database in one round trip by the select statements.
+     * <p>The limited fetch size keeps the memory bounded on the large results.
+     * Some drivers (e.g. PostgreSQL) use the fetch size only for the connection not in auto-commit mode</p>
+     *
+     * @param fetchSize rows count, 0 for the driver default
+     * @throws IllegalArgumentException when fetch size is negative
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0)
+            throw new IllegalArgumentException("Unexpected fetch size: " + fetchSize);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Gives the fetch size of the select statements
+     *
+     * @return rows count, 0 for the driver default
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Prepares the forward-only, read-only select statement with the DAO fetch size
+     *
+     * @param con connection
+     * @param sql select SQL query
+     * @return prepared statement
+     * @throws SQLException any database exception
+     */
+    protected PreparedStatement prepareSelect(Connection con, String sql) throws SQLException {
+        PreparedStatement st = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if (fetchSize > 0)
+            st.setFetchSize(fetchSize);
+        return st;
+    }
+
+    /**
+     * Sets the database dialect
+     *
+     * @param dialect database dialect, {@code null} for the detection by the connection metadata
+     */
+    public void setDialect(Dialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Gives the database dialect
+     *
+     * @return dialect or {@code null} if the dialect is not set or detected yet
+     */
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    /**
+     * Gives the database dialect, detects it by the connection metadata if the dialect is not set
+     *
+     * @param con connection
+     * @return database dialect
+     * @throws SQLException any database exception
+     */
+    protected Dialect dialect(Connection con) throws SQLException {
+        Dialect current = dialect;
+        if (current == null)
+            dialect = current = Dialect.detect(con.getMetaData());
+        return current;
+    }
+
     /**
      * Gives the table name
      *
@@ -118,7 +225,7 @@ abstract class AbstractDAO<T, ID> {
      */
     protected int delete(Connection con, ID id) throws SQLException {
         try (var st = con.prepareStatement(deleteStatement)) {
-            Jdbc.setParameters(st, id);
+            Jdbc.setParameters(deleteStatement, st, id);
             return st.executeUpdate();
         }
     }
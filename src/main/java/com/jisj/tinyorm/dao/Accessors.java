@@ -0,0 +1,279 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.Mapper;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.function.*;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Accessor engine: turns getters, setters, constructors and {@code @ResultMapper} methods into functional interfaces
+ * <p>The functions are generated once by {@code LambdaMetafactory} and could be inlined by JIT.
+ * If the entity class is not accessible for the lambda generation, a {@code MethodHandle} based function is used</p>
+ */
+final class Accessors {
+    private Accessors() {
+    }
+
+    /**
+     * Builds the getter function
+     *
+     * @param getter getter method
+     * @return function {@code entity → value}
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Method getter) {
+        MethodHandle mh = unreflect(getter);
+        try {
+            return (Function<Object, Object>) metafactory(getter.getDeclaringClass(), Function.class, "apply",
+                    methodType(Object.class, Object.class), mh, mh.type().wrap()).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(Object.class, Object.class));
+            return entity -> {
+                try {
+                    return generic.invokeExact(entity);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Builds the getter function of primitive {@code long} value without boxing
+     *
+     * @param getter getter method
+     * @return function {@code entity → value}
+     */
+    static ToLongFunction<Object> longGetter(Method getter) {
+        MethodHandle mh = unreflect(getter);
+        try {
+            return (ToLongFunction<Object>) metafactory(getter.getDeclaringClass(), ToLongFunction.class, "applyAsLong",
+                    methodType(long.class, Object.class), mh, mh.type().changeReturnType(long.class)).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(long.class, Object.class));
+            return entity -> {
+                try {
+                    return (long) generic.invokeExact(entity);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Builds the getter function of primitive {@code int} value without boxing
+     *
+     * @param getter getter method
+     * @return function {@code entity → value}
+     */
+    static ToIntFunction<Object> intGetter(Method getter) {
+        MethodHandle mh = unreflect(getter);
+        try {
+            return (ToIntFunction<Object>) metafactory(getter.getDeclaringClass(), ToIntFunction.class, "applyAsInt",
+                    methodType(int.class, Object.class), mh, mh.type().changeReturnType(int.class)).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(int.class, Object.class));
+            return entity -> {
+                try {
+                    return (int) generic.invokeExact(entity);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Builds the getter function of primitive {@code double} or {@code float} value without boxing
+     *
+     * @param getter getter method
+     * @return function {@code entity → value}
+     */
+    static ToDoubleFunction<Object> doubleGetter(Method getter) {
+        MethodHandle mh = unreflect(getter);
+        try {
+            return (ToDoubleFunction<Object>) metafactory(getter.getDeclaringClass(), ToDoubleFunction.class, "applyAsDouble",
+                    methodType(double.class, Object.class), mh, mh.type().changeReturnType(double.class)).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(double.class, Object.class));
+            return entity -> {
+                try {
+                    return (double) generic.invokeExact(entity);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Builds the getter function of primitive {@code boolean} value without boxing
+     *
+     * @param getter getter method
+     * @return function {@code entity → value}
+     */
+    static Predicate<Object> booleanGetter(Method getter) {
+        MethodHandle mh = unreflect(getter);
+        try {
+            return (Predicate<Object>) metafactory(getter.getDeclaringClass(), Predicate.class, "test",
+                    methodType(boolean.class, Object.class), mh, mh.type()).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(boolean.class, Object.class));
+            return entity -> {
+                try {
+                    return (boolean) generic.invokeExact(entity);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Builds the setter function
+     *
+     * @param setter setter method
+     * @return function {@code (entity, value) → void}
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(Method setter) {
+        MethodHandle mh = unreflect(setter);
+        try {
+            return (BiConsumer<Object, Object>) metafactory(setter.getDeclaringClass(), BiConsumer.class, "accept",
+                    methodType(void.class, Object.class, Object.class), mh,
+                    mh.type().wrap().changeReturnType(void.class)).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(void.class, Object.class, Object.class));
+            return (entity, value) -> {
+                try {
+                    generic.invokeExact(entity, value);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Builds the instance supplier from default constructor
+     *
+     * @param constructor default constructor
+     * @return new instance supplier
+     */
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> constructor(Constructor<?> constructor) {
+        MethodHandle mh = unreflect(constructor);
+        try {
+            return (Supplier<Object>) metafactory(constructor.getDeclaringClass(), Supplier.class, "get",
+                    methodType(Object.class), mh, mh.type()).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(Object.class));
+            return () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Builds the instance function from canonical record constructor or any all-arguments constructor
+     *
+     * @param constructor constructor
+     * @return function {@code arguments → new instance}
+     */
+    static Function<Object[], Object> spreadConstructor(Constructor<?> constructor) {
+        MethodHandle mh = unreflect(constructor);
+        MethodHandle spread = mh.asType(mh.type().generic())
+                .asSpreader(Object[].class, constructor.getParameterCount());
+        return arguments -> {
+            try {
+                return spread.invokeExact(arguments);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    /**
+     * Builds the mapper from static {@code @ResultMapper} method
+     *
+     * @param method checked mapper method
+     * @param <R>    entity type
+     * @return mapper
+     */
+    @SuppressWarnings("unchecked")
+    static <R> Mapper<R> mapper(Method method) {
+        MethodHandle mh = unreflect(method);
+        try {
+            return (Mapper<R>) metafactory(method.getDeclaringClass(), Mapper.class, "apply",
+                    methodType(Object.class, Object.class), mh, mh.type()).invoke();
+        } catch (Throwable e) {
+            MethodHandle generic = mh.asType(methodType(Object.class, Object.class));
+            return resultSet -> {
+                try {
+                    return (R) generic.invokeExact((Object) resultSet);
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * Gives the {@code MethodHandle} of the specified method or constructor
+     *
+     * @param member method or constructor
+     * @return method handle
+     */
+    static MethodHandle unreflect(Executable member) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(member.getDeclaringClass(), MethodHandles.lookup());
+            return member instanceof Method method ? lookup.unreflect(method) :
+                    lookup.unreflectConstructor((Constructor<?>) member);
+        } catch (IllegalAccessException | RuntimeException e) {
+            try {
+                member.setAccessible(true);
+                return member instanceof Method method ? MethodHandles.lookup().unreflect(method) :
+                        MethodHandles.lookup().unreflectConstructor((Constructor<?>) member);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                throw new IllegalStateException("Member is not accessible: " + member, ex);
+            }
+        }
+    }
+
+    private static MethodHandle metafactory(Class<?> target,
+                                            Class<?> functionalInterface,
+                                            String name,
+                                            MethodType samType,
+                                            MethodHandle implementation,
+                                            MethodType instantiatedType) throws IllegalAccessException, LambdaConversionException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(target, MethodHandles.lookup());
+        return LambdaMetafactory.metafactory(lookup,
+                        name,
+                        methodType(functionalInterface),
+                        samType,
+                        implementation,
+                        instantiatedType)
+                .getTarget();
+    }
+
+    /**
+     * Rethrows the specified throwable as is, without wrapping
+     *
+     * @param t throwable
+     * @return never returns
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException rethrow(Throwable t) throws E {
+        throw (E) t;
+    }
+}
@@ -0,0 +1,343 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.function.ThrowingSupplier;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous counterpart of the {@link DAO}
+ * <p>The DAO calls are executed on the executor, by default every call runs on its own virtual thread.
+ * The count of the concurrently executed calls is limited by the concurrency cap, the other calls wait
+ * for the permit without occupying the connections. The database exceptions complete the futures exceptionally.
+ * The calls are executed out of the transaction of the caller thread</p>
+ * <p>The cap given by the count is owned by the instance, so the DAOs over the same data source
+ * should share one {@link Semaphore} to keep the total count of the used connections under the cap</p>
+ * <pre>{@code
+ * Semaphore connections = new Semaphore(10, true);
+ * AsyncDAO<Order, Long> orders = new AsyncDAO<>(orderDao, connections, 10);
+ * AsyncDAO<Customer, Long> customers = new AsyncDAO<>(customerDao, connections, 10);
+ * orders.getById(orderId)
+ *         .thenCombine(customers.getById(customerId), Invoice::new)
+ *         .join();
+ * }</pre>
+ *
+ * @param <T>  entity type
+ * @param <ID> ID type
+ */
+public class AsyncDAO<T, ID> {
+    private static final Executor DEFAULT_EXECUTOR = Thread::startVirtualThread;
+    private final DAO<T, ID> dao;
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Creates the asynchronous DAO executing the calls on the virtual threads
+     *
+     * @param dao            wrapped DAO
+     * @param maxConcurrency maximum count of the concurrently executed calls of this instance
+     */
+    public AsyncDAO(DAO<T, ID> dao, int maxConcurrency) {
+        this(dao, DEFAULT_EXECUTOR, maxConcurrency);
+    }
+
+    /**
+     * Creates the asynchronous DAO
+     *
+     * @param dao            wrapped DAO
+     * @param executor       executor of the calls
+     * @param maxConcurrency maximum count of the concurrently executed calls of this instance
+     * @throws IllegalArgumentException when max concurrency less than 1
+     */
+    public AsyncDAO(DAO<T, ID> dao, Executor executor, int maxConcurrency) {
+        this(dao, executor, new Semaphore(checkConcurrency(maxConcurrency), true), maxConcurrency);
+    }
+
+    /**
+     * Creates the asynchronous DAO executing the calls on the virtual threads with the shared concurrency cap
+     *
+     * @param dao            wrapped DAO
+     * @param permits        permits of the concurrently executed calls, shared with the other DAOs
+     * @param maxConcurrency count of the permits of the semaphore
+     * @throws IllegalArgumentException when max concurrency less than 1
+     */
+    public AsyncDAO(DAO<T, ID> dao, Semaphore permits, int maxConcurrency) {
+        this(dao, DEFAULT_EXECUTOR, permits, maxConcurrency);
+    }
+
+    /**
+     * Creates the asynchronous DAO with the shared concurrency cap
+     * <p>Every call holds one permit of the semaphore while executed. The count of the permits is given
+     * explicitly, because the semaphore can be in use by the other DAOs</p>
+     *
+     * @param dao            wrapped DAO
+     * @param executor       executor of the calls
+     * @param permits        permits of the concurrently executed calls, shared with the other DAOs
+     * @param maxConcurrency count of the permits of the semaphore
+     * @throws IllegalArgumentException when max concurrency less than 1
+     */
+    public AsyncDAO(DAO<T, ID> dao, Executor executor, Semaphore permits, int maxConcurrency) {
+        this.dao = dao;
+        this.executor = executor;
+        this.maxConcurrency = checkConcurrency(maxConcurrency);
+        this.permits = permits;
+    }
+
+    private static int checkConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("Unexpected concurrency: " + maxConcurrency);
+        return maxConcurrency;
+    }
+
+    /**
+     * Gives the wrapped DAO
+     *
+     * @return DAO
+     */
+    public DAO<T, ID> getDAO() {
+        return dao;
+    }
+
+    /**
+     * Executes the work with the executor and the concurrency cap of this DAO.
+     * Used for the calls of the DAO specific methods, e.g. {@link SimpleJoinDAO#getJoinIds(Object)}
+     *
+     * @param work database work
+     * @param <R>  result type
+     * @return result future
+     */
+    public <R> CompletableFuture<R> supply(ThrowingSupplier<R, ? extends Exception> work) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> execute(work, result));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private <R> void execute(ThrowingSupplier<R, ? extends Exception> work, CompletableFuture<R> result) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        active.incrementAndGet();
+        R value;
+        try {
+            value = work.get();
+        } catch (Throwable e) {
+            active.decrementAndGet();
+            permits.release();
+            result.completeExceptionally(e);
+            return;
+        }
+        active.decrementAndGet();
+        permits.release();
+        result.complete(value);
+    }
+
+    /**
+     * Inserts the entity
+     *
+     * @param entity entity
+     * @return count of inserted records future
+     * @see DAO#insert(Object)
+     */
+    public CompletableFuture<Integer> insert(T entity) {
+        return supply(() -> dao.insert(entity));
+    }
+
+    /**
+     * Inserts the entity and gives the generated ID
+     *
+     * @param entity entity
+     * @return ID future
+     * @see DAO#create(Object)
+     */
+    public CompletableFuture<ID> create(T entity) {
+        return supply(() -> dao.create(entity));
+    }
+
+    /**
+     * Inserts the entities by batches
+     *
+     * @param entities entities
+     * @return count of inserted records future
+     * @see DAO#insertAll(Collection)
+     */
+    public CompletableFuture<Integer> insertAll(Collection<T> entities) {
+        return supply(() -> dao.insertAll(entities));
+    }
+
+    /**
+     * Inserts the entities and gives the generated IDs
+     *
+     * @param entities entities
+     * @return ID list future
+     * @see DAO#createAll(Collection)
+     */
+    public CompletableFuture<List<ID>> createAll(Collection<T> entities) {
+        return supply(() -> dao.createAll(entities));
+    }
+
+    /**
+     * Reads the entity
+     *
+     * @param id entity ID
+     * @return entity future
+     * @see DAO#getById(Object)
+     */
+    public CompletableFuture<Optional<T>> getById(ID id) {
+        return supply(() -> dao.getById(id));
+    }
+
+    /**
+     * Reads the entities by IDs
+     *
+     * @param ids entity IDs
+     * @return map {@code ID → entity} future
+     * @see DAO#getByIds(Collection)
+     */
+    public CompletableFuture<Map<ID, T>> getByIds(Collection<ID> ids) {
+        return supply(() -> dao.getByIds(ids));
+    }
+
+    /**
+     * Reads all entities to the list
+     *
+     * @return entity list future
+     * @see DAO#getAll()
+     */
+    public CompletableFuture<List<T>> getAll() {
+        return supply(() -> {
+            try (var stream = dao.getAll()) {
+                return stream.toList();
+            }
+        });
+    }
+
+    /**
+     * Updates the entity
+     *
+     * @param entity entity
+     * @return count of updated records future
+     * @see DAO#update(Object)
+     */
+    public CompletableFuture<Integer> update(T entity) {
+        return supply(() -> dao.update(entity));
+    }
+
+    /**
+     * Updates the entities by batches
+     *
+     * @param entities entities
+     * @return count of updated records future
+     * @see DAO#updateAll(Collection)
+     */
+    public CompletableFuture<Integer> updateAll(Collection<T> entities) {
+        return supply(() -> dao.updateAll(entities));
+    }
+
+    /**
+     * Inserts or updates the entity by ID
+     *
+     * @param entity entity
+     * @return count of upserted records future
+     * @see DAO#upsert(Object)
+     */
+    public CompletableFuture<Integer> upsert(T entity) {
+        return supply(() -> dao.upsert(entity));
+    }
+
+    /**
+     * Inserts or updates the entities by ID with batches
+     *
+     * @param entities entities
+     * @return count of upserted records future
+     * @see DAO#upsertAll(Collection)
+     */
+    public CompletableFuture<Integer> upsertAll(Collection<T> entities) {
+        return supply(() -> dao.upsertAll(entities));
+    }
+
+    /**
+     * Deletes the entity
+     *
+     * @param id entity ID
+     * @return count of deleted records future
+     * @see DAO#delete(Object)
+     */
+    public CompletableFuture<Integer> delete(ID id) {
+        return supply(() -> dao.delete(id));
+    }
+
+    /**
+     * Deletes the entities by batches
+     *
+     * @param ids entity IDs
+     * @return count of deleted records future
+     * @see DAO#deleteAll(Collection)
+     */
+    public CompletableFuture<Integer> deleteAll(Collection<ID> ids) {
+        return supply(() -> dao.deleteAll(ids));
+    }
+
+    /**
+     * Finds the entities under conditions
+     *
+     * @param whereClause search conditions for WHERE clause
+     * @param args        argument values
+     * @return entity list future
+     * @see DAO#find(String, Object...)
+     */
+    public CompletableFuture<List<T>> find(String whereClause, Object... args) {
+        return supply(() -> dao.find(whereClause, args));
+    }
+
+    /**
+     * Performs the select query
+     *
+     * @param sqlQuery SQL query
+     * @param args     query parameters
+     * @return entity list future
+     * @see DAO#query(String, Object...)
+     */
+    public CompletableFuture<List<T>> query(String sqlQuery, Object... args) {
+        return supply(() -> dao.query(sqlQuery, args));
+    }
+
+    /**
+     * Gives the maximum count of the concurrently executed calls, shared with the other DAOs of the same semaphore
+     *
+     * @return concurrency cap
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Gives the count of the executing calls of this DAO
+     *
+     * @return active calls count
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Gives the estimated count of the calls waiting for the permit, including the calls of the DAOs sharing the semaphore
+     *
+     * @return waiting calls count
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+}
@@ -1,12 +1,25 @@
 package com.jisj.tinyorm.dao;
 
+import com.jisj.tinyorm.Mapper;
+import com.jisj.tinyorm.Page;
+import com.jisj.tinyorm.ParameterBinder;
+import com.jisj.tinyorm.Transaction;
+import com.jisj.tinyorm.cache.LruCache;
+import com.jisj.tinyorm.cache.QueryCache;
+import com.jisj.tinyorm.cache.SingleFlight;
 import com.jisj.tinyorm.utils.Jdbc;
+import com.jisj.tinyorm.utils.ResultPublisher;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.jisj.tinyorm.dao.EntityHelper.*;
 
@@ -18,11 +31,23 @@ import static com.jisj.tinyorm.dao.EntityHelper.*;
  */
 public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
     private static final Logger log = Logger.getLogger(BaseDAO.class.getName());
+    private static final ParameterBinder<Object> ID_BINDER = (st, position, id) -> {
+        Jdbc.setParameter(st, position, id);
+        return position + 1;
+    };
     /**
      * Current datasource object
      */
     protected final DataSource dataSource;
     final Profile profile;
+    private final AtomicLong cacheVersion = new AtomicLong();
+    private volatile LruCache<ID, T> cache;
+    private volatile QueryCache queryCache;
+    private final SingleFlight<ID, Optional<T>> idFlight = new SingleFlight<>();
+    private volatile boolean coalescing;
+    private volatile boolean multiRowInsert;
+    private volatile ValuesInsert valuesInsert;
+    private volatile UpsertInsert upsertInsert;
 
     /**
      * Create the new DAO instance
@@ -35,7 +60,11 @@ public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
         this.profile = new Profile(clazz);
         tableName = profile.getTableName();
         idColumnName = profile.getIdColumnName();
-        setMapper(EntityHelper.getMapper(clazz));
+        @SuppressWarnings("unchecked")
+        Mapper<T> descriptorMapper = profile.getDescriptor()
+                .map(descriptor -> (Mapper<T>) descriptor.mapper())
+                .orElse(null);
+        setMapper(descriptorMapper != null ? descriptorMapper : EntityHelper.getMapper(clazz));
         setDefaultSelectStatement();
         setDefaultDeleteStatement();
         createTableStatement = profile.createTableQuery.isEmpty() ?
@@ -55,10 +84,18 @@ public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
         assertEntity(entity);
         if (insertStatement.isEmpty())
             throw new IllegalStateException("Insert SQL query not found in " + profile.clazz);
-        try (var con = dataSource.getConnection();
+        Optional<UnitOfWork> uow = UnitOfWork.current(dataSource);
+        if (uow.isPresent()) {
+            uow.get().add(this, insertStatement, profile.getInsertBinder(), entity, profile.getIdValue(entity));
+            evict(profile.getIdValue(entity));
+            return 1;
+        }
+        try (var con = connection();
              var st = con.prepareStatement(insertStatement)) {
-            Jdbc.setParameters(st, profile.getInsertableFieldValues(entity));
+            bind(insertStatement, st, profile.getInsertBinder(), entity);
             return st.executeUpdate();
+        } finally {
+            evict(profile.getIdValue(entity));
         }
     }
 
@@ -68,25 +105,300 @@ public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
         if (insertStatement.isEmpty())
             throw new IllegalStateException("Insert record SQL statement not found in %s or DAO %s"
                     .formatted(profile.clazz, this.getClass()));
-        try (var con = dataSource.getConnection();
+        try (var con = connection();
              var st = con.prepareStatement(insertStatement)) {
-            Jdbc.setParameters(st, profile.getInsertableFieldValues(entity));
+            bind(insertStatement, st, profile.getInsertBinder(), entity);
             st.executeUpdate();
             ResultSet rs = st.getGeneratedKeys();
             //noinspection unchecked
-            return rs.next() ? (ID) rs.getObject(1) : null;
+            ID id = rs.next() ? (ID) rs.getObject(1) : null;
+            evict(id);
+            return id;
+        } finally {
+            evict(profile.getIdValue(entity));
+        }
+    }
+
+    @Override
+    public int insertAll(Collection<T> entities) throws SQLException {
+        entities.forEach(this::assertEntity);
+        if (insertStatement.isEmpty())
+            throw new IllegalStateException("Insert SQL query not found in " + profile.clazz);
+        try {
+            if (multiRowInsert)
+                return executeValues(entities);
+            return executeBatches(insertStatement, entities, profile.getInsertBinder());
+        } finally {
+            entities.forEach(entity -> evict(profile.getIdValue(entity)));
         }
     }
 
+    @Override
+    public List<ID> createAll(Collection<T> entities) throws SQLException {
+        entities.forEach(this::assertEntity);
+        if (insertStatement.isEmpty())
+            throw new IllegalStateException("Insert record SQL statement not found in %s or DAO %s"
+                    .formatted(profile.clazz, this.getClass()));
+        List<ID> ids = new ArrayList<>(entities.size());
+        try {
+            executeChunks(entities, (con, chunk) -> {
+                try (var st = con.prepareStatement(insertStatement)) {
+                    for (T entity : chunk) {
+                        bind(insertStatement, st, profile.getInsertBinder(), entity);
+                        st.executeUpdate();
+                        try (ResultSet rs = st.getGeneratedKeys()) {
+                            @SuppressWarnings("unchecked")
+                            ID id = rs.next() ? (ID) rs.getObject(1) : null;
+                            ids.add(id);
+                        }
+                    }
+                }
+                return chunk.size();
+            });
+        } finally {
+            if (ids.isEmpty() && !entities.isEmpty())
+                evict(null);
+            else
+                ids.forEach(this::evict);
+        }
+        return ids;
+    }
+
+    /**
+     * Sets the read-through cache of {@link DAO#getById(Object)} and {@link DAO#getByIds(Collection)}.
+     * <p>The cached entity is invalidated by the writes of this DAO, the writes in the transaction invalidate
+     * the entity again after the transaction completion. The reads inside the transaction do not use the cache.
+     * The cached entities are shared between the callers and should not be modified</p>
+     *
+     * @param cache entity cache or {@code null} to disable the caching
+     */
+    public void setCache(LruCache<ID, T> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gives the entity cache
+     *
+     * @return cache or {@code null} if the caching is disabled
+     */
+    public LruCache<ID, T> getCache() {
+        return cache;
+    }
+
+    private LruCache<ID, T> readCache() {
+        LruCache<ID, T> current = cache;
+        return current == null || Transaction.current(dataSource).isPresent() ? null : current;
+    }
+
+    private void cache(LruCache<ID, T> current, long version, ID id, T entity) {
+        current.put(id, entity);
+        if (cacheVersion.get() != version)
+            current.invalidate(id);
+    }
+
+    /**
+     * Sets the result cache of {@link DAO#find(String, Object...)} and {@link DAO#query(String, Object...)}.
+     * <p>The results are cached as depending on the DAO table, the writes of this DAO invalidate them
+     * like the entity cache (see {@link BaseDAO#setCache(LruCache)}). The cached results are immutable lists</p>
+     *
+     * @param queryCache query cache, can be shared between DAO and Query instances, or {@code null} to disable
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    /**
+     * Gives the query cache
+     *
+     * @return cache or {@code null} if the caching is disabled
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Sets the coalescing of the concurrent {@link DAO#getById(Object)} calls with the same ID.
+     * <p>The concurrent calls share one database query and receive the same entity instance.
+     * The calls inside the transaction are not coalesced</p>
+     *
+     * @param coalescing {@code true} to coalesce the calls
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * Checks the coalescing of the concurrent {@link DAO#getById(Object)} calls
+     *
+     * @return {@code true} if the calls are coalesced
+     */
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Sets the insert mode of {@link DAO#insertAll(Collection)}
+     * <p>In the multi-row mode the entities are inserted by {@code INSERT ... VALUES (?,?),(?,?),...} statements
+     * made of the insert statement of the entity. The rows count of the statement is one of the fixed sizes
+     * within the parameters limit of the dialect (see {@link Dialect#valuesRowCount(int, int)}),
+     * so the count of the different statements is small. Otherwise, the entities are inserted by JDBC batches</p>
+     *
+     * @param multiRowInsert {@code true} for the multi-row statements
+     */
+    public void setMultiRowInsert(boolean multiRowInsert) {
+        this.multiRowInsert = multiRowInsert;
+    }
+
+    /**
+     * Checks the multi-row insert mode of {@link DAO#insertAll(Collection)}
+     *
+     * @return {@code true} if the entities are inserted by the multi-row statements
+     */
+    public boolean isMultiRowInsert() {
+        return multiRowInsert;
+    }
+
+    /**
+     * Removes the entity and the table queries from the caches, also after the completion of the current transaction
+     *
+     * @param id entity ID or {@code null} for all entities
+     */
+    void evict(Object id) {
+        LruCache<ID, T> current = cache;
+        QueryCache queries = queryCache;
+        if (current == null && queries == null)
+            return;
+        invalidate(current, queries, id);
+        Transaction.current(dataSource).ifPresent(tx -> tx.afterCompletion(() -> invalidate(current, queries, id)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invalidate(LruCache<ID, T> current, QueryCache queries, Object id) {
+        if (queries != null)
+            queries.invalidateTable(getTableName());
+        if (current == null)
+            return;
+        cacheVersion.incrementAndGet();
+        if (id == null)
+            current.invalidateAll();
+        else
+            current.invalidate((ID) id);
+    }
+
+    /**
+     * Gives the connection of the DAO DataSource or of its current transaction.
+     * The writes queued by the current {@link UnitOfWork} are executed before
+     *
+     * @return connection, should be closed after usage
+     * @throws SQLException any database exception
+     */
+    protected Connection connection() throws SQLException {
+        return Jdbc.getConnection(dataSource);
+    }
+
+    /**
+     * Binds the entity values to the statement parameters and checks the parameters count
+     *
+     * @param sql    SQL string of the prepared statement
+     * @param st     prepared statement
+     * @param binder entity binder
+     * @param entity entity instance
+     * @throws SQLException any database exception
+     */
+    void bind(String sql, PreparedStatement st, ParameterBinder<Object> binder, T entity) throws SQLException {
+        Jdbc.assertParameterCount(sql, st, binder.bind(st, 1, entity) - 1);
+    }
+
     private void assertEntity(T entity) {
         if (entity == null)
             throw new IllegalArgumentException("Unexpected entity value <null>");
     }
 
+    @Override
+    public int upsert(T entity) throws SQLException {
+        assertEntity(entity);
+        assertId(entity);
+        upsertInsert();
+        Optional<UnitOfWork> uow = UnitOfWork.current(dataSource);
+        if (uow.isPresent()) {
+            String sql = upsertStatement(dialect(uow.get().getTransaction().getConnection()));
+            uow.get().add(this, sql, profile.getInsertBinder(), entity, profile.getIdValue(entity));
+            evict(profile.getIdValue(entity));
+            return 1;
+        }
+        try (var con = connection()) {
+            final String SQL = upsertStatement(dialect(con));
+            try (var st = con.prepareStatement(SQL)) {
+                bind(SQL, st, profile.getInsertBinder(), entity);
+                return st.executeUpdate();
+            }
+        } finally {
+            evict(profile.getIdValue(entity));
+        }
+    }
+
+    @Override
+    public int upsertAll(Collection<T> entities) throws SQLException {
+        for (T entity : entities) {
+            assertEntity(entity);
+            assertId(entity);
+        }
+        upsertInsert();
+        if (entities.isEmpty())
+            return 0;
+        Dialect current = dialect;
+        if (current == null) {
+            try (var con = connection()) {
+                current = dialect(con);
+            }
+        }
+        try {
+            return executeBatches(upsertStatement(current), entities, profile.getInsertBinder());
+        } finally {
+            entities.forEach(entity -> evict(profile.getIdValue(entity)));
+        }
+    }
+
+    private void assertId(T entity) {
+        if (profile.getIdValue(entity) == null)
+            throw new IllegalStateException("ID field <%s> is null in %s".formatted(profile.getIdFieldName(), entity));
+    }
+
+    /**
+     * Gives the upsert statement of the dialect with the table, the columns and the values row of the insert statement
+     *
+     * @param dialect database dialect
+     * @return SQL statement with the parameters of the insert statement
+     * @throws IllegalStateException when the insert statement is not the single row insert of the ID column
+     */
+    private String upsertStatement(Dialect dialect) {
+        return upsertInsert().sql(dialect);
+    }
+
+    private UpsertInsert upsertInsert() {
+        UpsertInsert current = upsertInsert;
+        if (current == null || !current.insertStatement().equals(insertStatement)) {
+            if (insertStatement.isEmpty())
+                throw new IllegalStateException("Insert SQL query not found in " + profile.clazz);
+            current = UpsertInsert.of(insertStatement, idColumnName);
+            upsertInsert = current;
+        }
+        return current;
+    }
+
+    private ValuesInsert valuesInsert() {
+        ValuesInsert current = valuesInsert;
+        if (current == null || !current.insertStatement().equals(insertStatement)) {
+            current = ValuesInsert.of(insertStatement);
+            valuesInsert = current;
+        }
+        return current;
+    }
+
     @Override
     public int update(T entity) throws SQLException {
-        if (EntityHelper.getFieldValue(profile.getIdField(), entity) == null)
-            throw new IllegalStateException("ID field <%s> is null in %s".formatted(profile.getIdField().getName(), entity));
+        if (profile.getIdValue(entity) == null)
+            throw new IllegalStateException("ID field <%s> is null in %s".formatted(profile.getIdFieldName(), entity));
 
         assertEntity(entity);
         if (updateStatement.isEmpty())
@@ -94,44 +406,498 @@ public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
                     .formatted(profile.clazz, this.getClass()) +
                     "Use @CrudDdl.updateSql() for entity or DAO class, or AbstractDAO.updateStatement");
         final String SQL = updateStatement;
-        try (var con = dataSource.getConnection();
+        Optional<UnitOfWork> uow = UnitOfWork.current(dataSource);
+        if (uow.isPresent()) {
+            uow.get().add(this, SQL, profile.getUpdateBinder(), entity, profile.getIdValue(entity));
+            evict(profile.getIdValue(entity));
+            return 1;
+        }
+        try (var con = connection();
              var st = con.prepareStatement(SQL)) {
-            Jdbc.setParameters(st, profile.getUpdatableFieldValues(entity));
+            bind(SQL, st, profile.getUpdateBinder(), entity);
             return st.executeUpdate();
+        } finally {
+            evict(profile.getIdValue(entity));
+        }
+    }
+
+    @Override
+    public int updateAll(Collection<T> entities) throws SQLException {
+        for (T entity : entities) {
+            assertEntity(entity);
+            if (profile.getIdValue(entity) == null)
+                throw new IllegalStateException("ID field <%s> is null in %s".formatted(profile.getIdFieldName(), entity));
+        }
+        if (updateStatement.isEmpty())
+            throw new IllegalStateException("Update SQL query not found in entity %s or DAO %s \n"
+                    .formatted(profile.clazz, this.getClass()) +
+                    "Use @CrudDdl.updateSql() for entity or DAO class, or AbstractDAO.updateStatement");
+        try {
+            return executeBatches(updateStatement, entities, profile.getUpdateBinder());
+        } finally {
+            entities.forEach(entity -> evict(profile.getIdValue(entity)));
         }
     }
 
     @Override
     public Optional<T> getById(ID id) {
-        try (var con = dataSource.getConnection();
+        LruCache<ID, T> current = readCache();
+        if (current != null) {
+            T cached = current.get(id);
+            if (cached != null)
+                return Optional.of(cached);
+        }
+        if (coalescing && Transaction.current(dataSource).isEmpty())
+            return idFlight.execute(id, () -> loadById(current, id));
+        return loadById(current, id);
+    }
+
+    private Optional<T> loadById(LruCache<ID, T> current, ID id) {
+        long version = cacheVersion.get();
+        try (var con = connection();
              var st = con.prepareStatement(selectStatement)) {
-            Jdbc.setParameters(st, id);
+            Jdbc.setParameters(selectStatement, st, id);
             ResultSet rs = st.executeQuery();
-            return rs.next() ? Optional.of(mapper.apply(rs)) : Optional.empty();
+            if (!rs.next())
+                return Optional.empty();
+            T entity = mapper.bind(rs).apply(rs);
+            if (current != null)
+                cache(current, version, id, entity);
+            return Optional.of(entity);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public Map<ID, T> getByIds(Collection<ID> ids) throws SQLException {
+        if (ids.isEmpty())
+            return new HashMap<>();
+        Map<ID, T> result = HashMap.newHashMap(ids.size());
+        LruCache<ID, T> current = readCache();
+        List<ID> distinct = new ArrayList<>(ids.size());
+        for (ID id : new LinkedHashSet<>(ids)) {
+            T cached = current == null ? null : current.get(id);
+            if (cached == null)
+                distinct.add(id);
+            else
+                result.put(id, cached);
+        }
+        if (distinct.isEmpty())
+            return result;
+        long version = cacheVersion.get();
+        try (var con = connection()) {
+            Dialect dialect = dialect(con);
+            int from = 0;
+            while (from < distinct.size()) {
+                int size = dialect.inListSize(distinct.size() - from);
+                int to = Math.min(from + size, distinct.size());
+                Object[] args = new Object[size];
+                for (int i = 0; i < size; i++)
+                    args[i] = distinct.get(Math.min(from + i, to - 1));
+                final String SQL = "SELECT * FROM %s WHERE %s IN (%s)"
+                        .formatted(tableName, idColumnName, String.join(",", Collections.nCopies(size, "?")));
+                try (var st = con.prepareStatement(SQL)) {
+                    Jdbc.setParameters(SQL, st, args);
+                    ResultSet rs = st.executeQuery();
+                    Mapper<T> rowMapper = mapper.bind(rs);
+                    while (rs.next()) {
+                        T entity = rowMapper.apply(rs);
+                        @SuppressWarnings("unchecked")
+                        ID id = (ID) profile.getIdValue(entity);
+                        result.put(id, entity);
+                        if (current != null)
+                            cache(current, version, id, entity);
+                    }
+                }
+                from = to;
+            }
+        }
+        return result;
+    }
+
     @Override
     public Stream<T> getAll() {
         final String SQL = "SELECT * FROM %s".formatted(tableName);
         try {
-            final Connection con = dataSource.getConnection();
-            var st = con.prepareStatement(SQL);
-            return Jdbc.execToStream(st, mapper);
+            final Connection con = connection();
+            try {
+                return Jdbc.execToStream(con, prepareSelect(con, SQL), mapper);
+            } catch (SQLException | RuntimeException e) {
+                con.close();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the page of the entities ordered by ID. The page is selected by the ID index
+     * with {@code WHERE id > afterId}, so the cost of the page does not depend on its position
+     *
+     * @param afterId ID of the last entity of the previous page, {@code null} for the first page
+     * @param limit   page size
+     * @return page with the ID of the last entity as the next cursor
+     * @throws SQLException             any database exception
+     * @throws IllegalArgumentException when limit less than 1
+     */
+    @SuppressWarnings("unchecked")
+    public Page<T, ID> page(ID afterId, int limit) throws SQLException {
+        if (limit < 1)
+            throw new IllegalArgumentException("Unexpected page size: " + limit);
+        final Connection con = connection();
+        try {
+            String limitClause = dialect(con).limitClause();
+            final String SQL = afterId == null
+                    ? "SELECT * FROM %s ORDER BY %s %s".formatted(tableName, idColumnName, limitClause)
+                    : "SELECT * FROM %s WHERE %s>? ORDER BY %s %s".formatted(tableName, idColumnName, idColumnName, limitClause);
+            PreparedStatement st = prepareSelect(con, SQL);
+            try {
+                if (afterId == null)
+                    Jdbc.setParameters(SQL, st, limit + 1);
+                else
+                    Jdbc.setParameters(SQL, st, afterId, limit + 1);
+            } catch (SQLException | RuntimeException e) {
+                st.close();
+                throw e;
+            }
+            try (Stream<T> rows = Jdbc.execToStream(con, st, mapper)) {
+                return Page.of(rows.toList(), limit, entity -> (ID) profile.getIdValue(entity));
+            }
+        } catch (SQLException | RuntimeException e) {
+            con.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives the lazy stream of the pages of all entities ordered by ID, see {@link BaseDAO#page(Object, int)}
+     *
+     * @param limit page size
+     * @return pages stream
+     * @throws IllegalArgumentException when limit less than 1
+     */
+    public Stream<Page<T, ID>> pages(int limit) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Unexpected page size: " + limit);
+        return Page.stream(afterId -> page(afterId, limit));
+    }
+
+    /**
+     * Inserts the entities of the stream by the parallel writers
+     * <p>The stream is read by the chunks of {@link LoadOptions#chunkSize()} entities into the queue
+     * of {@link LoadOptions#queueCapacity()} chunks, so the memory does not depend on the stream size.
+     * The writers insert every chunk by the JDBC batch in own transaction, each writer uses own connection
+     * of the DataSource, out of the current transaction. The entities of the chunk failed by the data error
+     * (see {@link Dialect#isDataError(SQLException)}) are inserted one by one, the entities failed by the data error
+     * are rejected and passed to {@link LoadOptions#rejects()}. The other failures, e.g. lock timeouts or lost
+     * connections, stop the load, the chunks committed before the failure are not rolled back</p>
+     *
+     * @param entities entities stream, not closed by the load
+     * @param options  load options
+     * @return count of the loaded and rejected entities
+     * @throws SQLException any database exception except the rejects
+     */
+    public LoadResult load(Stream<T> entities, LoadOptions options) throws SQLException {
+        return load(entities.iterator(), options);
+    }
+
+    /**
+     * Inserts the entities of the iterator by the parallel writers, see {@link BaseDAO#load(Stream, LoadOptions)}
+     *
+     * @param entities entities iterator
+     * @param options  load options
+     * @return count of the loaded and rejected entities
+     * @throws SQLException any database exception except the rejects
+     */
+    public LoadResult load(Iterator<T> entities, LoadOptions options) throws SQLException {
+        if (insertStatement.isEmpty())
+            throw new IllegalStateException("Insert SQL query not found in " + profile.clazz);
+        try {
+            return new BulkLoader<>(this, options).run(entities);
+        } finally {
+            evict(null);
+        }
+    }
+
+    /**
+     * Gives the parallel stream of all entities, read by the ID range partitions
+     * <p>The range of the numeric IDs is split by the stream into at most {@code partitions} parts,
+     * each part is read by {@code WHERE id BETWEEN} query on its own connection of the DataSource.
+     * The range and the parts are read out of the current transaction, the pending changes of the unit of work
+     * are not flushed. The part connection is released after reading the part.
+     * The stream that is not fully processed should be closed, use try-with-resources statement</p>
+     *
+     * @param partitions maximum count of the partitions, e.g. count of the connections available for the scan
+     * @return parallel entity stream
+     * @throws IllegalArgumentException when partitions count less than 1
+     * @throws IllegalStateException    when the ID is not numeric
+     */
+    public Stream<T> scan(int partitions) {
+        if (partitions < 1)
+            throw new IllegalArgumentException("Unexpected partitions count: " + partitions);
+        final String RANGE_SQL = "SELECT MIN(%s), MAX(%s) FROM %s".formatted(idColumnName, idColumnName, tableName);
+        final Object min;
+        final Object max;
+        try (var con = dataSource.getConnection();
+             var st = con.prepareStatement(RANGE_SQL)) {
+            ResultSet rs = st.executeQuery();
+            rs.next();
+            min = rs.getObject(1);
+            max = rs.getObject(2);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+        if (min == null)
+            return Stream.empty();
+        if (!(min instanceof Number from) || !(max instanceof Number to))
+            throw new IllegalStateException("Partitioned scan requires the numeric ID in table <%s>".formatted(tableName));
+        final long width = Math.max(1, (to.longValue() - from.longValue()) / partitions + 1);
+        final Queue<Stream<T>> parts = new ConcurrentLinkedQueue<>();
+        return StreamSupport.stream(new RangeSpliterator(from.longValue(), to.longValue(), width, parts), true)
+                .onClose(() -> {
+                    RuntimeException error = null;
+                    for (Stream<T> part : parts) {
+                        try {
+                            part.close();
+                        } catch (RuntimeException e) {
+                            if (error == null)
+                                error = e;
+                            else
+                                error.addSuppressed(e);
+                        }
+                    }
+                    if (error != null)
+                        throw error;
+                });
+    }
+
+    /**
+     * Spliterator of the ID range, split by halves until the minimum width
+     */
+    private final class RangeSpliterator implements Spliterator<T> {
+        private final long to;
+        private final long minWidth;
+        private final Queue<Stream<T>> parts;
+        private long from;
+        private Stream<T> part;
+        private Spliterator<T> rows;
+
+        RangeSpliterator(long from, long to, long minWidth, Queue<Stream<T>> parts) {
+            this.from = from;
+            this.to = to;
+            this.minWidth = minWidth;
+            this.parts = parts;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (rows != null || to - from + 1 < 2 * minWidth)
+                return null;
+            long middle = from + (to - from) / 2;
+            RangeSpliterator prefix = new RangeSpliterator(from, middle, minWidth, parts);
+            from = middle + 1;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (rows == null) {
+                part = open();
+                rows = part.spliterator();
+            }
+            if (rows.tryAdvance(action))
+                return true;
+            if (part != null) {
+                Stream<T> exhausted = part;
+                part = null;
+                parts.remove(exhausted);
+                exhausted.close();
+            }
+            return false;
+        }
+
+        private Stream<T> open() {
+            final String SQL = "SELECT * FROM %s WHERE %s BETWEEN ? AND ? ORDER BY %s"
+                    .formatted(tableName, idColumnName, idColumnName);
+            try {
+                Connection con = dataSource.getConnection();
+                try {
+                    PreparedStatement st = prepareSelect(con, SQL);
+                    try {
+                        Jdbc.setParameters(SQL, st, from, to);
+                    } catch (SQLException | RuntimeException e) {
+                        st.close();
+                        throw e;
+                    }
+                    Stream<T> opened = Jdbc.execToStream(con, st, mapper);
+                    parts.add(opened);
+                    return opened;
+                } catch (SQLException | RuntimeException e) {
+                    con.close();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from + 1;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+    }
+
+    /**
+     * Gives the publisher of all entities. Every subscription reads the table on its own connection
+     * on the demand of the subscriber, see {@link ResultPublisher}
+     *
+     * @return entity publisher
+     */
+    public Flow.Publisher<T> getAllPublisher() {
+        final String SQL = "SELECT * FROM %s".formatted(tableName);
+        return new ResultPublisher<>(dataSource, con -> prepareSelect(con, SQL), mapper);
     }
 
     @Override
     public int delete(ID id) throws SQLException {
-        try (var con = dataSource.getConnection()) {
+        Optional<UnitOfWork> uow = UnitOfWork.current(dataSource);
+        if (uow.isPresent()) {
+            uow.get().add(this, deleteStatement, ID_BINDER, id, id);
+            evict(id);
+            return 1;
+        }
+        try (var con = connection()) {
             return super.delete(con, id);
+        } finally {
+            evict(id);
         }
     }
 
+    @Override
+    public int deleteAll(Collection<ID> ids) throws SQLException {
+        try {
+            return executeBatches(deleteStatement, ids, ID_BINDER);
+        } finally {
+            ids.forEach(this::evict);
+        }
+    }
+
+    /**
+     * Executes the statement by JDBC batches of {@link AbstractDAO#getBatchSize()} values
+     *
+     * @param sql    SQL statement
+     * @param values values of the batch rows
+     * @param binder binder of the row values to the statement parameters
+     * @param <V>    row value type
+     * @return affected records count, the row with unknown result is counted as 1
+     * @throws SQLException any database exception
+     */
+    <V> int executeBatches(String sql, Collection<V> values, ParameterBinder<? super V> binder) throws SQLException {
+        return executeChunks(values, (con, chunk) -> {
+            try (var st = con.prepareStatement(sql)) {
+                for (V value : chunk) {
+                    Jdbc.assertParameterCount(sql, st, binder.bind(st, 1, value) - 1);
+                    st.addBatch();
+                }
+                int count = 0;
+                for (int result : st.executeBatch())
+                    count += result == Statement.SUCCESS_NO_INFO ? 1 : Math.max(result, 0);
+                return count;
+            }
+        });
+    }
+
+    /**
+     * Inserts the entities by the multi-row statements of {@link AbstractDAO#getBatchSize()} entities chunks
+     *
+     * @param entities entities
+     * @return inserted records count
+     * @throws SQLException any database exception
+     */
+    private int executeValues(Collection<T> entities) throws SQLException {
+        final ValuesInsert statements = valuesInsert();
+        final ParameterBinder<Object> binder = profile.getInsertBinder();
+        return executeChunks(entities, (con, chunk) -> {
+            Dialect current = dialect(con);
+            int count = 0;
+            PreparedStatement st = null;
+            int statementRows = 0;
+            try {
+                for (int offset = 0; offset < chunk.size(); ) {
+                    int rows = current.valuesRowCount(chunk.size() - offset, statements.parametersPerRow());
+                    final String SQL = statements.sql(rows);
+                    if (rows != statementRows) {
+                        if (st != null)
+                            st.close();
+                        st = con.prepareStatement(SQL);
+                        statementRows = rows;
+                    }
+                    int index = 1;
+                    for (int i = 0; i < rows; i++)
+                        index = binder.bind(st, index, chunk.get(offset + i));
+                    Jdbc.assertParameterCount(SQL, st, index - 1);
+                    count += st.executeUpdate();
+                    offset += rows;
+                }
+            } finally {
+                if (st != null)
+                    st.close();
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Executes the chunks of {@link AbstractDAO#getBatchSize()} values, each chunk with own connection.
+     * <p>If the connection is in auto-commit mode, the chunk is executed in the transaction.
+     * The chunks committed before the failed chunk are not rolled back</p>
+     *
+     * @param values  all values
+     * @param execute chunk execution, returns the affected records count
+     * @param <V>     value type
+     * @return sum of the affected records counts
+     * @throws SQLException any database exception
+     */
+    private <V> int executeChunks(Collection<V> values, ChunkExecution<V> execute) throws SQLException {
+        int count = 0;
+        Iterator<V> iterator = values.iterator();
+        while (iterator.hasNext()) {
+            List<V> chunk = new ArrayList<>(Math.min(batchSize, values.size()));
+            while (iterator.hasNext() && chunk.size() < batchSize)
+                chunk.add(iterator.next());
+            try (var con = connection()) {
+                boolean autoCommit = con.getAutoCommit();
+                if (autoCommit)
+                    con.setAutoCommit(false);
+                try {
+                    count += execute.apply(con, chunk);
+                    if (autoCommit)
+                        con.commit();
+                } catch (SQLException | RuntimeException e) {
+                    if (autoCommit)
+                        con.rollback();
+                    throw e;
+                } finally {
+                    if (autoCommit)
+                        con.setAutoCommit(true);
+                }
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface ChunkExecution<V> {
+        int apply(Connection con, List<V> chunk) throws SQLException;
+    }
+
     @Override
     public List<T> find(String whereClause, Object... args) throws SQLException {
         if (whereClause == null || whereClause.isEmpty())
@@ -142,13 +908,21 @@ public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
 
     @Override
     public List<T> query(String sqlQuery, Object... args) throws SQLException {
-        try (var con = dataSource.getConnection();
-             var st = con.prepareStatement(sqlQuery)) {
-            Jdbc.setParameters(st, args);
+        QueryCache queries = queryCache;
+        if (queries != null && Transaction.current(dataSource).isEmpty())
+            return queries.get(this, sqlQuery, args, List.of(getTableName()), () -> select(sqlQuery, args));
+        return select(sqlQuery, args);
+    }
+
+    private List<T> select(String sqlQuery, Object... args) throws SQLException {
+        try (var con = connection();
+             var st = prepareSelect(con, sqlQuery)) {
+            Jdbc.setParameters(sqlQuery, st, args);
             ResultSet rs = st.executeQuery();
+            Mapper<T> rowMapper = mapper.bind(rs);
             List<T> result = new ArrayList<>();
             while (rs.next())
-                result.add(mapper.apply(rs));
+                result.add(rowMapper.apply(rs));
             return result;
         }
     }
@@ -164,7 +938,7 @@ public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
 
     @Override
     public void createTable(String ddl) throws SQLException {
-        try (var con = dataSource.getConnection()) {
+        try (var con = connection()) {
             createTable(con, ddl);
             log.fine("Table <%s> is created".formatted(getTableName()));
         }
@@ -173,7 +947,7 @@ public class BaseDAO<T, ID> extends AbstractDAO<T, ID> implements DAO<T, ID> {
     @Override
     public void dropTable() throws SQLException {
         final String SQL = "DROP TABLE IF EXISTS %s".formatted(getTableName());
-        try (var con = dataSource.getConnection();
+        try (var con = connection();
              var st = con.prepareStatement(SQL)) {
             st.execute();
             log.fine("Table <%s> dropped".formatted(getTableName()));
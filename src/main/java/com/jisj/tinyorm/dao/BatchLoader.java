@@ -0,0 +1,164 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.Transaction;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Batching front-end of {@link DAO#getById(Object)}
+ * <p>The IDs requested within the window after the first request of the batch are read by one
+ * {@link DAO#getByIds(Collection)} call. The batch is dispatched at the end of the window or when it reaches
+ * the maximum size. The requests of the same ID in one batch share the result.
+ * The window timers run on the common delayed scheduler, only the batch queries occupy the executor</p>
+ * <p>The batches are read out of the transaction and the unit of work of the caller thread. The request of the thread
+ * in the transaction (or the unit of work) of the {@link BaseDAO} DataSource is not batched, the entity is read
+ * by {@link DAO#getById(Object)} in the transaction. The other DAO implementations are always batched</p>
+ * <pre>{@code
+ * BatchLoader<Order, Long> orders = new BatchLoader<>(orderDao, Duration.ofMillis(2), 500);
+ * Optional<Order> order = orders.getById(id);
+ * }</pre>
+ *
+ * @param <T>  entity type
+ * @param <ID> ID type
+ */
+public class BatchLoader<T, ID> {
+    private static final Executor DEFAULT_EXECUTOR = Thread::startVirtualThread;
+    private final DAO<T, ID> dao;
+    private final DataSource dataSource;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Executor executor;
+    private final Executor timer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch<T, ID> current;
+
+    private static final class Batch<T, ID> {
+        final Map<ID, CompletableFuture<Optional<T>>> requests = new LinkedHashMap<>();
+        boolean dispatched;
+    }
+
+    /**
+     * Creates the loader dispatching the batches on the virtual threads
+     *
+     * @param dao          entity DAO
+     * @param window       time of the requests collecting
+     * @param maxBatchSize maximum count of the IDs in the batch
+     */
+    public BatchLoader(DAO<T, ID> dao, Duration window, int maxBatchSize) {
+        this(dao, window, maxBatchSize, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Creates the loader
+     *
+     * @param dao          entity DAO
+     * @param window       time of the requests collecting
+     * @param maxBatchSize maximum count of the IDs in the batch
+     * @param executor     executor of the batch queries, the rejected batches fail the requests
+     * @throws IllegalArgumentException when window is negative or max batch size less than 1
+     */
+    public BatchLoader(DAO<T, ID> dao, Duration window, int maxBatchSize, Executor executor) {
+        if (window.isNegative())
+            throw new IllegalArgumentException("Unexpected window: " + window);
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("Unexpected batch size: " + maxBatchSize);
+        this.dao = dao;
+        this.dataSource = dao instanceof BaseDAO<?, ?> base ? base.dataSource : null;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+        this.timer = CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, Runnable::run);
+    }
+
+    /**
+     * Requests the entity
+     *
+     * @param id entity ID
+     * @return entity future, completed by the batch query or by the read in the transaction of the caller
+     */
+    public CompletableFuture<Optional<T>> load(ID id) {
+        Objects.requireNonNull(id, "ID is null");
+        if (dataSource != null && Transaction.current(dataSource).isPresent()) {
+            try {
+                return CompletableFuture.completedFuture(dao.getById(id));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        Batch<T, ID> full = null;
+        CompletableFuture<Optional<T>> result;
+        lock.lock();
+        try {
+            if (current == null) {
+                Batch<T, ID> batch = new Batch<>();
+                current = batch;
+                timer.execute(() -> expire(batch));
+            }
+            result = current.requests.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (current.requests.size() >= maxBatchSize) {
+                full = current;
+                full.dispatched = true;
+                current = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null)
+            submit(full);
+        return result;
+    }
+
+    /**
+     * Reads the entity by the batch query and waits for the result
+     *
+     * @param id entity ID
+     * @return entity or empty Optional
+     */
+    public Optional<T> getById(ID id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime)
+                throw runtime;
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void expire(Batch<T, ID> batch) {
+        lock.lock();
+        try {
+            if (batch.dispatched)
+                return;
+            batch.dispatched = true;
+            if (current == batch)
+                current = null;
+        } finally {
+            lock.unlock();
+        }
+        submit(batch);
+    }
+
+    private void submit(Batch<T, ID> batch) {
+        try {
+            executor.execute(() -> dispatch(batch));
+        } catch (RuntimeException e) {
+            batch.requests.values().forEach(request -> request.completeExceptionally(e));
+        }
+    }
+
+    private void dispatch(Batch<T, ID> batch) {
+        try {
+            Map<ID, T> entities = dao.getByIds(new ArrayList<>(batch.requests.keySet()));
+            batch.requests.forEach((id, request) -> request.complete(Optional.ofNullable(entities.get(id))));
+        } catch (Throwable e) {
+            batch.requests.values().forEach(request -> request.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.ParameterBinder;
+import com.jisj.tinyorm.utils.Jdbc;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pipeline of the bulk load
+ * <p>The caller thread reads the source by chunks into the bounded queue, the writers take the chunks
+ * and insert each chunk by one JDBC batch in own transaction. The chunk failed by the data error
+ * (see {@link Dialect#isDataError(SQLException)}) is rolled back and inserted by one entity, the entities failed
+ * by the data error are rejected. On the other failure the source reading is stopped,
+ * the writers skip the queued chunks</p>
+ *
+ * @param <T> entity type
+ */
+final class BulkLoader<T> {
+    private static final List<?> END = new ArrayList<>(0);
+    private final BaseDAO<T, ?> dao;
+    private final LoadOptions options;
+    private final String sql;
+    private final ParameterBinder<Object> binder;
+    private final BlockingQueue<List<?>> queue;
+    private final LongAdder loaded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final long start = System.nanoTime();
+    private final AtomicLong lastReport = new AtomicLong(start);
+
+    BulkLoader(BaseDAO<T, ?> dao, LoadOptions options) {
+        this.dao = dao;
+        this.options = options;
+        this.sql = dao.insertStatement;
+        this.binder = dao.profile.getInsertBinder();
+        this.queue = new ArrayBlockingQueue<>(options.queueCapacity());
+    }
+
+    /**
+     * Loads the entities
+     *
+     * @param source entities source
+     * @return load result
+     * @throws SQLException the first database exception, except the rejects
+     */
+    LoadResult run(Iterator<T> source) throws SQLException {
+        Thread[] writers = new Thread[options.writers()];
+        for (int i = 0; i < writers.length; i++)
+            writers[i] = Thread.startVirtualThread(this::write);
+        try {
+            while (failure.get() == null && source.hasNext()) {
+                List<T> chunk = new ArrayList<>(options.chunkSize());
+                while (chunk.size() < options.chunkSize() && source.hasNext())
+                    chunk.add(source.next());
+                queue.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new SQLException("Load is interrupted", e));
+        } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            finish(writers);
+        }
+        Throwable error = failure.get();
+        if (error instanceof SQLException e)
+            throw e;
+        if (error instanceof RuntimeException e)
+            throw e;
+        if (error instanceof Error e)
+            throw e;
+        LoadResult result = result();
+        options.progress().accept(result);
+        return result;
+    }
+
+    private void finish(Thread[] writers) {
+        boolean interrupted = false;
+        for (int i = 0; i < writers.length; ) {
+            try {
+                queue.put(END);
+                i++;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        for (int i = 0; i < writers.length; ) {
+            try {
+                writers[i].join();
+                i++;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void write() {
+        boolean ended = false;
+        try (Connection con = dao.dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            Dialect dialect = dao.dialect(con);
+            try (PreparedStatement st = con.prepareStatement(sql)) {
+                for (List<?> chunk = take(); chunk != END; chunk = take())
+                    if (failure.get() == null)
+                        insert(con, st, dialect, chunk);
+                ended = true;
+            }
+        } catch (SQLException | RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        }
+        if (!ended) {
+            while (take() != END) {
+                // the chunks are skipped after the failure
+            }
+        }
+    }
+
+    private List<?> take() {
+        while (true) {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, new SQLException("Load is interrupted", e));
+            }
+        }
+    }
+
+    private void insert(Connection con, PreparedStatement st, Dialect dialect, List<?> chunk) throws SQLException {
+        try {
+            for (Object entity : chunk) {
+                Jdbc.assertParameterCount(sql, st, binder.bind(st, 1, entity) - 1);
+                st.addBatch();
+            }
+            st.executeBatch();
+            con.commit();
+            loaded.add(chunk.size());
+        } catch (SQLException e) {
+            rollback(con, e);
+            // some drivers do not pass the cause of the failed batch entry, the entries are checked one by one
+            if (!(e instanceof BatchUpdateException) && !dialect.isDataError(e))
+                throw e;
+            st.clearBatch();
+            insertEach(con, st, dialect, chunk);
+        }
+        report();
+    }
+
+    private void insertEach(Connection con, PreparedStatement st, Dialect dialect, List<?> chunk) throws SQLException {
+        for (Object entity : chunk) {
+            try {
+                binder.bind(st, 1, entity);
+                st.executeUpdate();
+                con.commit();
+                loaded.increment();
+            } catch (SQLException e) {
+                rollback(con, e);
+                if (!dialect.isDataError(e))
+                    throw e;
+                rejected.increment();
+                options.rejects().accept(entity, e);
+            }
+        }
+    }
+
+    private static void rollback(Connection con, SQLException failure) throws SQLException {
+        try {
+            con.rollback();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+            throw failure;
+        }
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        long last = lastReport.get();
+        if (now - last >= options.progressInterval().toNanos() && lastReport.compareAndSet(last, now))
+            options.progress().accept(result());
+    }
+
+    private LoadResult result() {
+        return new LoadResult(loaded.sum(), rejected.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+}
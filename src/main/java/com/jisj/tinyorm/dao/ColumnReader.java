@@ -0,0 +1,170 @@
+package com.jisj.tinyorm.dao;
+
+import java.sql.*;
+import java.util.Optional;
+
+/**
+ * Typed {@code ResultSet} column readers, selected once per entity field
+ */
+enum ColumnReader {
+    LONG {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getLong(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getLong(columnName);
+        }
+    },
+    BOOLEAN {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getBoolean(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getBoolean(columnName);
+        }
+    },
+    DATE {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getDate(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getDate(columnName);
+        }
+    },
+    INT {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getInt(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getInt(columnName);
+        }
+    },
+    TIME {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getTime(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getTime(columnName);
+        }
+    },
+    TIMESTAMP {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getTimestamp(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getTimestamp(columnName);
+        }
+    },
+    FLOAT {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getFloat(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getFloat(columnName);
+        }
+    },
+    DOUBLE {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getDouble(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getDouble(columnName);
+        }
+    },
+    STRING {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getString(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getString(columnName);
+        }
+    },
+    OBJECT {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getObject(index);
+        }
+
+        @Override
+        Object read(ResultSet rs, String columnName) throws SQLException {
+            return rs.getObject(columnName);
+        }
+    };
+
+    /**
+     * Reads the column value by column index
+     *
+     * @param rs    result set
+     * @param index column index
+     * @return column value
+     * @throws SQLException any database exception
+     */
+    abstract Object read(ResultSet rs, int index) throws SQLException;
+
+    /**
+     * Reads the column value by column name
+     *
+     * @param rs         result set
+     * @param columnName column name
+     * @return column value
+     * @throws SQLException any database exception
+     */
+    abstract Object read(ResultSet rs, String columnName) throws SQLException;
+
+    /**
+     * Gives the reader for the specified field type
+     *
+     * @param type field type
+     * @return reader or empty Optional for unknown type
+     */
+    static Optional<ColumnReader> of(Class<?> type) {
+        if (type == Long.class || type == long.class)
+            return Optional.of(LONG);
+        else if (type == Boolean.class || type == boolean.class)
+            return Optional.of(BOOLEAN);
+        else if (type == Date.class)
+            return Optional.of(DATE);
+        else if (type == Integer.class || type == int.class)
+            return Optional.of(INT);
+        else if (type == Time.class)
+            return Optional.of(TIME);
+        else if (type == Timestamp.class)
+            return Optional.of(TIMESTAMP);
+        else if (type == Float.class || type == float.class)
+            return Optional.of(FLOAT);
+        else if (type == Double.class || type == double.class)
+            return Optional.of(DOUBLE);
+        else if (type == String.class)
+            return Optional.of(STRING);
+        else if (type == Object.class)
+            return Optional.of(OBJECT);
+        return Optional.empty();
+    }
+}
@@ -2,7 +2,11 @@ package com.jisj.tinyorm.dao;
 
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -44,6 +48,38 @@ public interface DAO<T, ID> {
      */
     ID create(T entity) throws SQLException;
 
+    /**
+     * Creates new records, by default one by one with {@link DAO#insert(Object)}
+     * <p>{@link BaseDAO} executes JDBC batches, each batch of {@code AbstractDAO.getBatchSize()} records
+     * with own connection and transaction</p>
+     *
+     * @param entities entity instances
+     * @return created records count
+     * @throws SQLException record constraints, any database exceptions
+     */
+    default int insertAll(Collection<T> entities) throws SQLException {
+        int count = 0;
+        for (T entity : entities)
+            count += insert(entity);
+        return count;
+    }
+
+    /**
+     * Creates new records, by default one by one with {@link DAO#create(Object)}
+     * <p>{@link BaseDAO} creates the records by batches of {@code AbstractDAO.getBatchSize()} records
+     * with own connection and transaction</p>
+     *
+     * @param entities entity instances
+     * @return list of created records {@code <ID>} in the order of the entities, if the database gives the generated keys
+     * @throws SQLException record constraints, any database exceptions
+     */
+    default List<ID> createAll(Collection<T> entities) throws SQLException {
+        List<ID> ids = new ArrayList<>(entities.size());
+        for (T entity : entities)
+            ids.add(create(entity));
+        return ids;
+    }
+
     /**
      * Read the entity by ID
      *
@@ -52,8 +88,26 @@ public interface DAO<T, ID> {
      */
     Optional<T> getById(ID id);
 
+    /**
+     * Reads the entities by IDs, by default one by one with {@link DAO#getById(Object)}
+     * <p>{@link BaseDAO} reads them with {@code IN (?,?,...)} queries, the IDs are split into chunks
+     * by the parameters limit of the database dialect</p>
+     *
+     * @param ids entity IDs
+     * @return map {@code ID → entity}, without not found IDs
+     * @throws SQLException any database exception
+     */
+    default Map<ID, T> getByIds(Collection<ID> ids) throws SQLException {
+        Map<ID, T> entities = new LinkedHashMap<>();
+        for (ID id : ids)
+            getById(id).ifPresent(entity -> entities.put(id, entity));
+        return entities;
+    }
+
     /**
      * Reads all records from the table
+     * <p>The connection is released after processing the whole stream or by {@link Stream#close()}.
+     * Use try-with-resources statement for the stream that is not fully processed</p>
      *
      * @return stream of entities
      */
@@ -69,6 +123,23 @@ public interface DAO<T, ID> {
      */
     int update(T entity) throws SQLException;
 
+    /**
+     * Updates the specified entities, by default one by one with {@link DAO#update(Object)}
+     * <p>{@link BaseDAO} executes JDBC batches, each batch of {@code AbstractDAO.getBatchSize()} records
+     * with own connection and transaction</p>
+     *
+     * @param entities entities for update
+     * @return updated count
+     * @throws SQLException          any database exception
+     * @throws IllegalStateException when ID field is null
+     */
+    default int updateAll(Collection<T> entities) throws SQLException {
+        int count = 0;
+        for (T entity : entities)
+            count += update(entity);
+        return count;
+    }
+
     /**
      * Delete the record with specified ID
      * @param id deleting entity ID
@@ -77,6 +148,53 @@ public interface DAO<T, ID> {
      */
     int delete(ID id) throws SQLException;
 
+    /**
+     * Deletes the records with specified IDs, by default one by one with {@link DAO#delete(Object)}
+     * <p>{@link BaseDAO} executes JDBC batches, each batch of {@code AbstractDAO.getBatchSize()} records
+     * with own connection and transaction</p>
+     *
+     * @param ids deleting entity IDs
+     * @return deleted count
+     * @throws SQLException any database exception
+     */
+    default int deleteAll(Collection<ID> ids) throws SQLException {
+        int count = 0;
+        for (ID id : ids)
+            count += delete(id);
+        return count;
+    }
+
+    /**
+     * Inserts the entity or updates the record with the same ID. By default updates the record
+     * and inserts the entity when no record is updated, the calls are not atomic
+     * <p>{@link BaseDAO} executes one statement of the database dialect</p>
+     *
+     * @param entity entity with ID
+     * @return count of the affected records, depends on the database
+     * @throws SQLException          any database exception
+     * @throws IllegalStateException when the entity ID is null
+     */
+    default int upsert(T entity) throws SQLException {
+        int count = update(entity);
+        return count == 0 ? insert(entity) : count;
+    }
+
+    /**
+     * Inserts or updates the entities, by default one by one with {@link DAO#upsert(Object)}
+     * <p>{@link BaseDAO} executes JDBC batches</p>
+     *
+     * @param entities entities with ID
+     * @return count of the affected records
+     * @throws SQLException          any database exception
+     * @throws IllegalStateException when the entity ID is null
+     */
+    default int upsertAll(Collection<T> entities) throws SQLException {
+        int count = 0;
+        for (T entity : entities)
+            count += upsert(entity);
+        return count;
+    }
+
     /**
      * Finds all records under conditions
      * <p>{@code = findAll("name=? AND status=?", "table", 34}</p>
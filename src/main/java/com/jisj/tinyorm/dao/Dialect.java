@@ -0,0 +1,166 @@
+package com.jisj.tinyorm.dao;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Database dialect
+ * <p>Gives the database specific limits of the generated SQL statements</p>
+ */
+public enum Dialect {
+    H2(32767),
+    /**
+     * SQLite before 3.32 limits the statement parameters count by 999
+     */
+    SQLITE(999),
+    POSTGRESQL(32767),
+    GENERIC(999);
+
+    /**
+     * Sizes of the {@code IN (?,?,...)} lists and the multi-row inserts.
+     * The fixed sizes keep the count of the different statements small
+     */
+    private static final int[] IN_LIST_SIZES = {1, 4, 16, 64, 256, 1024};
+    /**
+     * SQLite result codes of the data errors: {@code TOOBIG}, {@code CONSTRAINT} and {@code MISMATCH}.
+     * SQLite driver reports the result code as the vendor code without SQLState
+     */
+    private static final Set<Integer> SQLITE_DATA_ERRORS = Set.of(18, 19, 20);
+    private final int maxParameters;
+
+    Dialect(int maxParameters) {
+        this.maxParameters = maxParameters;
+    }
+
+    /**
+     * Gives the maximum count of parameters in one statement
+     *
+     * @return parameters count
+     */
+    public int maxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * Gives the parameters count of the {@code IN (?,?,...)} list for the specified count of values
+     *
+     * @param count values count
+     * @return the smallest fixed list size for the values count, or the largest size available in the dialect
+     */
+    public int inListSize(int count) {
+        int size = 1;
+        for (int listSize : IN_LIST_SIZES) {
+            if (listSize > maxParameters)
+                break;
+            size = listSize;
+            if (listSize >= count)
+                break;
+        }
+        return size;
+    }
+
+    /**
+     * Gives the rows count of the multi-row {@code VALUES (...),(...)} insert for the specified count of rows
+     *
+     * @param count            rows count
+     * @param parametersPerRow parameters count of one row
+     * @return the largest fixed size not greater than the rows count and within the parameters limit, at least 1
+     */
+    public int valuesRowCount(int count, int parametersPerRow) {
+        int rows = 1;
+        for (int size : IN_LIST_SIZES) {
+            if (size > count || (long) size * parametersPerRow > maxParameters)
+                break;
+            rows = size;
+        }
+        return rows;
+    }
+
+    /**
+     * Gives the clause limiting the count of the selected rows by the statement parameter
+     *
+     * @return {@code LIMIT ?} or the standard {@code FETCH FIRST ? ROWS ONLY} for {@link Dialect#GENERIC}
+     */
+    public String limitClause() {
+        return this == GENERIC ? "FETCH FIRST ? ROWS ONLY" : "LIMIT ?";
+    }
+
+    /**
+     * Gives the statement inserting the record or updating the record with the same ID:
+     * {@code MERGE INTO ... KEY(id)} for H2, {@code INSERT ... ON CONFLICT(id) DO UPDATE} for SQLite and PostgreSQL
+     *
+     * @param tableName    table name
+     * @param columns      inserted columns, including the ID column
+     * @param values       {@code VALUES} row of the insert statement with one value per column, e.g. {@code (?,?,0)}
+     * @param idColumnName ID column name
+     * @return SQL statement with the parameters of the values row
+     * @throws UnsupportedOperationException for {@link Dialect#GENERIC}
+     */
+    public String upsertSql(String tableName, List<String> columns, String values, String idColumnName) {
+        String columnList = String.join(", ", columns);
+        return switch (this) {
+            case H2 -> "MERGE INTO %s (%s) KEY(%s) VALUES %s".formatted(tableName, columnList, idColumnName, values);
+            case SQLITE, POSTGRESQL -> {
+                String updates = columns.stream()
+                        .filter(column -> !column.equalsIgnoreCase(idColumnName))
+                        .map(column -> "%s=excluded.%s".formatted(column, column))
+                        .collect(Collectors.joining(", "));
+                yield "INSERT INTO %s (%s) VALUES %s ON CONFLICT(%s) DO %s".formatted(tableName, columnList, values,
+                        idColumnName, updates.isEmpty() ? "NOTHING" : "UPDATE SET " + updates);
+            }
+            case GENERIC -> throw new UnsupportedOperationException("Upsert is not supported by the generic dialect");
+        };
+    }
+
+    /**
+     * Checks if the exception is caused by the data of the statement, e.g. constraint violation or invalid value,
+     * so the statement fails again with the same data. The causes and the chained exceptions are checked too
+     *
+     * @param e database exception
+     * @return {@code true} for SQLState class {@code 22} or {@code 23}, {@code false} for the transient
+     * and the connection failures
+     */
+    public boolean isDataError(SQLException e) {
+        return isDataError(e, 0);
+    }
+
+    private boolean isDataError(Throwable e, int depth) {
+        if (e == null || depth > 8)
+            return false;
+        if (e instanceof SQLIntegrityConstraintViolationException || e instanceof SQLDataException)
+            return true;
+        if (e instanceof SQLException sql) {
+            String state = sql.getSQLState();
+            if (state != null && (state.startsWith("22") || state.startsWith("23")))
+                return true;
+            if (this == SQLITE && state == null && SQLITE_DATA_ERRORS.contains(sql.getErrorCode() & 0xff))
+                return true;
+            if (isDataError(sql.getNextException(), depth + 1))
+                return true;
+        }
+        return e.getCause() != e && isDataError(e.getCause(), depth + 1);
+    }
+
+    /**
+     * Detects the dialect by the database product name
+     *
+     * @param metaData database metadata
+     * @return detected dialect or {@link Dialect#GENERIC}
+     * @throws SQLException any database exception
+     */
+    public static Dialect detect(DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName().toLowerCase();
+        if (product.contains("sqlite"))
+            return SQLITE;
+        else if (product.contains("h2"))
+            return H2;
+        else if (product.contains("postgresql"))
+            return POSTGRESQL;
+        return GENERIC;
+    }
+}
@@ -0,0 +1,117 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.ParameterBinder;
+import com.jisj.tinyorm.utils.Jdbc;
+
+import java.lang.reflect.Method;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runtime binder of the entity properties to the {@code PreparedStatement} parameters
+ * <p>The typed bind step is selected once per property. Primitive values are passed to the typed setters
+ * without boxing, {@code null} values are bound by {@code setNull} with the SQL type of the property</p>
+ */
+final class EntityBinder implements ParameterBinder<Object> {
+    private final Step[] steps;
+
+    /**
+     * Bind step of the single property
+     */
+    @FunctionalInterface
+    private interface Step {
+        void bind(PreparedStatement st, int position, Object entity) throws SQLException;
+    }
+
+    private EntityBinder(List<EntityModel.Property> properties) {
+        this.steps = properties.stream().map(EntityBinder::step).toArray(Step[]::new);
+    }
+
+    /**
+     * Creates the binder of the insertable properties
+     *
+     * @param model entity model
+     * @return insert statement binder
+     */
+    static EntityBinder insert(EntityModel model) {
+        return new EntityBinder(model.insertable());
+    }
+
+    /**
+     * Creates the binder of the updatable properties and ID property at the end
+     *
+     * @param model entity model
+     * @return update statement binder
+     */
+    static EntityBinder update(EntityModel model) {
+        List<EntityModel.Property> properties = new ArrayList<>(model.updatable());
+        properties.add(model.id());
+        return new EntityBinder(properties);
+    }
+
+    @Override
+    public int bind(PreparedStatement st, int position, Object entity) throws SQLException {
+        for (Step step : steps)
+            step.bind(st, position++, entity);
+        return position;
+    }
+
+    private static Step step(EntityModel.Property property) {
+        Method getter = property.getter();
+        if (getter == null)
+            return (st, position, entity) -> Jdbc.setParameter(st, position, property.get(entity));
+        Class<?> type = getter.getReturnType();
+        if (type == long.class) {
+            ToLongFunction<Object> value = Accessors.longGetter(getter);
+            return (st, position, entity) -> st.setLong(position, value.applyAsLong(entity));
+        } else if (type == int.class) {
+            ToIntFunction<Object> value = Accessors.intGetter(getter);
+            return (st, position, entity) -> st.setInt(position, value.applyAsInt(entity));
+        } else if (type == double.class) {
+            ToDoubleFunction<Object> value = Accessors.doubleGetter(getter);
+            return (st, position, entity) -> st.setDouble(position, value.applyAsDouble(entity));
+        } else if (type == float.class) {
+            ToDoubleFunction<Object> value = Accessors.doubleGetter(getter);
+            return (st, position, entity) -> st.setFloat(position, (float) value.applyAsDouble(entity));
+        } else if (type == boolean.class) {
+            Predicate<Object> value = Accessors.booleanGetter(getter);
+            return (st, position, entity) -> st.setBoolean(position, value.test(entity));
+        }
+        Function<Object, Object> value = property.reader();
+        if (type == Long.class)
+            return nullable(value, Types.BIGINT, (st, position, v) -> st.setLong(position, (Long) v));
+        else if (type == Integer.class)
+            return nullable(value, Types.INTEGER, (st, position, v) -> st.setInt(position, (Integer) v));
+        else if (type == Double.class)
+            return nullable(value, Types.DOUBLE, (st, position, v) -> st.setDouble(position, (Double) v));
+        else if (type == Float.class)
+            return nullable(value, Types.REAL, (st, position, v) -> st.setFloat(position, (Float) v));
+        else if (type == Boolean.class)
+            return nullable(value, Types.BOOLEAN, (st, position, v) -> st.setBoolean(position, (Boolean) v));
+        else if (type == String.class)
+            return nullable(value, Types.VARCHAR, (st, position, v) -> st.setString(position, (String) v));
+        else if (type == Date.class)
+            return nullable(value, Types.DATE, (st, position, v) -> st.setDate(position, (Date) v));
+        else if (type == Time.class)
+            return nullable(value, Types.TIME, (st, position, v) -> st.setTime(position, (Time) v));
+        else if (type == Timestamp.class)
+            return nullable(value, Types.TIMESTAMP, (st, position, v) -> st.setTimestamp(position, (Timestamp) v));
+        return (st, position, entity) -> Jdbc.setParameter(st, position, value.apply(entity));
+    }
+
+    private static Step nullable(Function<Object, Object> value, int sqlType, Step setter) {
+        return (st, position, entity) -> {
+            Object v = value.apply(entity);
+            if (v == null)
+                st.setNull(position, sqlType);
+            else
+                setter.bind(st, position, v);
+        };
+    }
+}
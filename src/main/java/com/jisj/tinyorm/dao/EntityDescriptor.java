@@ -0,0 +1,108 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.Mapper;
+import com.jisj.tinyorm.ParameterBinder;
+
+/**
+ * Entity descriptor generated at build time by {@link com.jisj.tinyorm.processor.EntityProcessor}
+ * <p>The generated class {@code <EntityClass>_TinyOrm} is placed into the entity package.
+ * When the class is present, {@code BaseDAO} uses it instead of the runtime reflection</p>
+ *
+ * @param <T> entity type
+ */
+public interface EntityDescriptor<T> {
+    /**
+     * Generated class name suffix
+     */
+    String SUFFIX = "_TinyOrm";
+
+    /**
+     * Gives the entity class
+     *
+     * @return entity class
+     */
+    Class<T> entityClass();
+
+    /**
+     * Gives the table name
+     *
+     * @return annotated table name or class name, in double quotes for case-sensitive table
+     */
+    String tableName();
+
+    /**
+     * Gives the ID column name
+     *
+     * @return ID column name, in double quotes for case-sensitive table
+     */
+    String idColumnName();
+
+    /**
+     * Gives the ID field name
+     *
+     * @return ID field or record component name
+     */
+    String idFieldName();
+
+    /**
+     * Gives the create table statement from {@code @CrudDdl} or {@code @Table} annotations
+     *
+     * @return SQL string or empty String
+     */
+    String createTableSql();
+
+    /**
+     * Gives the insert record statement from {@code @CrudDdl} annotation
+     *
+     * @return SQL string or empty String
+     */
+    String insertSql();
+
+    /**
+     * Gives the update record statement from {@code @CrudDdl} annotation, without WHERE clause
+     *
+     * @return SQL string or empty String
+     */
+    String updateSql();
+
+    /**
+     * Gives the {@code ResultSet → entity} mapper
+     *
+     * @return mapper
+     */
+    Mapper<T> mapper();
+
+    /**
+     * Gives the binder of the insertable fields
+     *
+     * @return insert statement binder
+     */
+    ParameterBinder<T> insertBinder();
+
+    /**
+     * Gives the binder of the updatable fields and ID field at the end
+     *
+     * @return update statement binder
+     */
+    ParameterBinder<T> updateBinder();
+
+    /**
+     * Gives the ID value of the specified entity
+     *
+     * @param entity entity instance
+     * @return ID field value
+     */
+    Object idValue(T entity);
+
+    /**
+     * Gives the name of the generated descriptor class for the specified entity class
+     *
+     * @param clazz entity class
+     * @return fully qualified class name
+     */
+    static String className(Class<?> clazz) {
+        String packageName = clazz.getPackageName();
+        String simpleName = packageName.isEmpty() ? clazz.getName() : clazz.getName().substring(packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + SUFFIX;
+    }
+}
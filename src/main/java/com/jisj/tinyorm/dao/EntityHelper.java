@@ -31,11 +31,9 @@ class EntityHelper {
      * @return instance field value
      */
     static Object getFieldValue(Field field, Object entityInstance) {
-        try {
-            return getGetter(field).invoke(entityInstance);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
+        return EntityModel.of(field.getDeclaringClass())
+                .property(field)
+                .get(entityInstance);
     }
 
     static Method getGetter(Field field) {
@@ -49,9 +47,13 @@ class EntityHelper {
     }
 
     static Method getSetter(Field field) {
+        return getSetter(field, getGetter(field).getReturnType());
+    }
+
+    static Method getSetter(Field field, Class<?> type) {
         try {
             return field.getDeclaringClass()
-                    .getDeclaredMethod("set" + capitalize(field.getName()), getGetter(field).getReturnType());
+                    .getDeclaredMethod("set" + capitalize(field.getName()), type);
         } catch (NoSuchMethodException e) {
             throw new IllegalStateException("Setter for <" + field.getName() + "> not found");
         }
@@ -117,18 +119,7 @@ class EntityHelper {
     static <R> Mapper<R> getMapper(Class<?> clazz) {
         return findMapper(clazz)
                 .map(method -> assertMapper(method, clazz))
-                .map(method -> {
-                    method.setAccessible(true);
-                    return method;
-                })
-                .map(method -> (Mapper<R>) resultSet -> {
-                    try {
-//                        noinspection unchecked
-                        return (R) method.invoke(null, resultSet);
-                    } catch (IllegalAccessException | InvocationTargetException e) {
-                        throw new RuntimeException(e);
-                    }
-                })
+                .map(Accessors::<R>mapper)
                 .orElseGet(() -> EntityMapper.buildMapper(clazz));
     }
 
@@ -166,13 +157,7 @@ class EntityHelper {
      * @throws IllegalStateException if default constructor not found
      */
     static Object newInstance(Class<?> clazz) {
-        try {
-            return clazz.getDeclaredConstructor().newInstance();
-        } catch (NoSuchMethodException e) {
-            throw new IllegalStateException("Default constructor not found in " + clazz);
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
+        return EntityModel.of(clazz).newInstance();
     }
 
     /**
@@ -233,34 +218,27 @@ class EntityHelper {
     }
 
     /**
-     * Gives the legal entity fields - excluded FINAL, TRANSIENT and {@code @Transient} annotated
+     * Gives the legal entity fields - excluded STATIC, FINAL, TRANSIENT and {@code @Transient} annotated.
+     * For {@code record} entity gives the record component fields
      *
      * @param clazz entity class
      * @return stream of fields
      */
     static Stream<Field> getFields(Class<?> clazz) {
+        if (clazz.isRecord())
+            return Arrays.stream(clazz.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()));
         return Arrays.stream(clazz.getDeclaredFields())
                 .filter(EntityHelper::isNotTransient);
     }
 
     private static boolean isNotTransient(Field field) {
-        return !field.accessFlags().contains(AccessFlag.FINAL) &&
+        return !field.accessFlags().contains(AccessFlag.STATIC) &&
+                !field.accessFlags().contains(AccessFlag.FINAL) &&
                 !field.accessFlags().contains(AccessFlag.TRANSIENT) &&
                 field.getAnnotation(Transient.class) == null;
     }
 
-    static Stream<Field> getInsertableFields(Class<?> clazz) {
-        //TODO add the options from @Column
-        return getFields(clazz);
-    }
-
-    static Stream<Field> getUpdatableFields(Class<?> clazz) {
-        //TODO add the options from @Column
-        return getFields(clazz)
-                .filter(field -> !field.equals(getIdField(clazz))); //TODO remove
-    }
-
-
     /**
      * Proxy class for {@code jakarta.persistence.Table}
      *
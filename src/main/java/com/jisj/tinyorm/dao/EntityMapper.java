@@ -2,86 +2,131 @@ package com.jisj.tinyorm.dao;
 
 import com.jisj.tinyorm.Mapper;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.sql.*;
-import java.util.HashMap;
-import java.util.Map;
-
-import static com.jisj.tinyorm.dao.EntityHelper.*;
+import java.util.function.BiConsumer;
 
 /**
  * Mapper builder class
+ * <p>The built mapper reads the columns by name. Bound to a {@code ResultSet} by {@link Mapper#bind(ResultSet)}
+ * it reads the columns by index resolved once from {@code ResultSetMetaData}</p>
+ * <p>{@code record} entities are created by the canonical constructor from the read column values</p>
  * @param <R> return entity instance type
  */
 class EntityMapper<R> {
-    private final Class<?> entityClass;
-    /**
-     * {@code Map<columnName, fieldSetter>}
-     */
-    private final Map<String, Method> setters = new HashMap<>();
+    private final EntityModel model;
+    private Column[] columns;
 
     /**
      * Creates mapper for specified entity
      * @param entityClass entity class
      */
     EntityMapper(Class<?> entityClass) {
-        this.entityClass = entityClass;
+        this.model = EntityModel.of(entityClass);
     }
 
     Mapper<R> build() {
-        fillSetters();
-        return this::map;
+        fillColumns();
+        return new Mapper<>() {
+            @Override
+            public R apply(ResultSet rs) throws SQLException {
+                return map(rs, columns);
+            }
+
+            @Override
+            public Mapper<R> bind(ResultSet rs) throws SQLException {
+                final Column[] bound = bindColumns(rs.getMetaData());
+                return row -> map(row, bound);
+            }
+        };
     }
 
-    private void fillSetters() {
-        getFields(entityClass)
-                .forEach(field -> setters.put(getColumnName(field), getSetter(field)));
+    private void fillColumns() {
+        columns = model.properties().stream()
+                .map(property -> model.isRecord() ? property : property.assertSetter())
+                .map(property -> new Column(property.columnName(),
+                        0,
+                        ColumnReader.of(property.type()).orElse(null),
+                        property.type(),
+                        property.writer()))
+                .toArray(Column[]::new);
     }
 
-    private R map(ResultSet rs) {
-        @SuppressWarnings("unchecked") R entity = (R) newInstance(entityClass);
-        for (var f : setters.entrySet()) {
-            try {
-                f.getValue().invoke(entity, getRSValue(rs, f.getValue().getParameterTypes()[0], f.getKey()));
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * Resolves the column indexes from the result set metadata
+     *
+     * @param metaData result set metadata
+     * @return columns with resolved indexes
+     * @throws SQLException any database exception
+     */
+    private Column[] bindColumns(ResultSetMetaData metaData) throws SQLException {
+        final int count = metaData.getColumnCount();
+        String[] labels = new String[count];
+        for (int i = 0; i < count; i++)
+            labels[i] = metaData.getColumnLabel(i + 1);
+        Column[] bound = new Column[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            bound[c] = columns[c];
+            for (int i = 0; i < count; i++)
+                if (columns[c].name().equalsIgnoreCase(labels[i])) {
+                    bound[c] = columns[c].withIndex(i + 1);
+                    break;
+                }
+        }
+        return bound;
+    }
+
+    @SuppressWarnings("unchecked")
+    private R map(ResultSet rs, Column[] columns) throws SQLException {
+        if (model.isRecord()) {
+            Object[] arguments = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++)
+                arguments[i] = columns[i].read(rs);
+            return (R) model.newInstance(arguments);
         }
+        R entity = (R) model.newInstance();
+        for (Column column : columns)
+            column.writer().accept(entity, column.read(rs));
         return entity;
     }
 
     static Object getRSValue(ResultSet rs, Class<?> type, String columnName) {
         try {
-            if (type == Long.class || type == long.class)
-                return rs.getLong(columnName);
-            else if (type == Boolean.class || type == boolean.class)
-                return rs.getBoolean(columnName);
-            else if (type == Date.class)
-                return rs.getDate(columnName);
-            else if (type == Integer.class || type == int.class)
-                return rs.getInt(columnName);
-            else if (type == Time.class)
-                return rs.getTime(columnName);
-            else if (type == Timestamp.class)
-                return rs.getTimestamp(columnName);
-            else if (type == Float.class || type == float.class)
-                return rs.getFloat(columnName);
-            else if (type == Double.class || type == double.class)
-                return rs.getDouble(columnName);
-            else if (type == String.class)
-                return rs.getString(columnName);
-            else if (type == Object.class)
-                return rs.getObject(columnName);
-            else throw new IllegalStateException("Unknown data type: " + type + " for column <" + columnName + ">");
-
+            return ColumnReader.of(type)
+                    .orElseThrow(() -> unknownType(type, columnName))
+                    .read(rs, columnName);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static IllegalStateException unknownType(Class<?> type, String columnName) {
+        return new IllegalStateException("Unknown data type: " + type + " for column <" + columnName + ">");
+    }
+
     static <T> Mapper<T> buildMapper(Class<?> entityClass) {
         EntityMapper<T> mapper = new EntityMapper<>(entityClass);
         return mapper.build();
     }
+
+    /**
+     * Mapping step {@code column → field setter}
+     *
+     * @param name   column name
+     * @param index  column index or 0 if the column is read by name
+     * @param reader typed column reader or {@code null} for unknown type
+     * @param type   field type
+     * @param writer field setter or {@code null} for record component
+     */
+    private record Column(String name, int index, ColumnReader reader, Class<?> type, BiConsumer<Object, Object> writer) {
+
+        Column withIndex(int index) {
+            return new Column(name, index, reader, type, writer);
+        }
+
+        Object read(ResultSet rs) throws SQLException {
+            if (reader == null)
+                throw unknownType(type, name);
+            return index > 0 ? reader.read(rs, index) : reader.read(rs, name);
+        }
+    }
 }
@@ -0,0 +1,271 @@
+package com.jisj.tinyorm.dao;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Resolved metadata of an entity class: legal fields, column names, accessors and ID descriptor
+ * <p>The model is built once per class and shared by all {@code Profile}, {@code EntityMapper} and {@code BaseDAO} instances</p>
+ * <p>For {@code record} entities the properties are the record components, the accessors serve as getters
+ * and new instances are created through the canonical constructor</p>
+ */
+final class EntityModel {
+    private static final ClassValue<EntityModel> MODELS = new ClassValue<>() {
+        @Override
+        protected EntityModel computeValue(Class<?> type) {
+            return new EntityModel(type);
+        }
+    };
+
+    final Class<?> clazz;
+    private final Supplier<Object> instantiator;
+    private final Function<Object[], Object> canonicalConstructor;
+    private final List<Property> properties;
+    private final List<Property> updatable;
+    private final Property id;
+
+    private EntityModel(Class<?> clazz) {
+        this.clazz = clazz;
+        this.instantiator = instantiator(clazz);
+        this.canonicalConstructor = clazz.isRecord() ? canonicalConstructor(clazz) : null;
+        this.properties = clazz.isRecord() ?
+                Arrays.stream(clazz.getRecordComponents())
+                        .map(Property::of)
+                        .toList() :
+                EntityHelper.getFields(clazz)
+                        .map(Property::of)
+                        .toList();
+        Field idField = findIdField(clazz);
+        this.id = idField == null ? null : property(idField);
+        this.updatable = properties.stream()
+                .filter(p -> p != id)
+                .toList();
+    }
+
+    /**
+     * Gives the model of the specified entity class
+     *
+     * @param clazz entity class
+     * @return cached entity model
+     */
+    static EntityModel of(Class<?> clazz) {
+        return MODELS.get(clazz);
+    }
+
+    private static Supplier<Object> instantiator(Class<?> clazz) {
+        try {
+            return Accessors.constructor(clazz.getDeclaredConstructor());
+        } catch (NoSuchMethodException | IllegalStateException e) {
+            return () -> {
+                throw new IllegalStateException("Default constructor not found in " + clazz);
+            };
+        }
+    }
+
+    private static Function<Object[], Object> canonicalConstructor(Class<?> clazz) {
+        try {
+            return Accessors.spreadConstructor(clazz.getDeclaredConstructor(Arrays.stream(clazz.getRecordComponents())
+                    .map(RecordComponent::getType)
+                    .toArray(Class<?>[]::new)));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Canonical constructor not found in " + clazz);
+        }
+    }
+
+    private static Field findIdField(Class<?> clazz) {
+        try {
+            return EntityHelper.getIdField(clazz);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates new instance of the entity class
+     *
+     * @return new instance
+     * @throws IllegalStateException if default constructor not found
+     */
+    Object newInstance() {
+        return instantiator.get();
+    }
+
+    /**
+     * Creates new instance of the record entity class
+     *
+     * @param arguments record component values in the declaration order
+     * @return new instance
+     * @throws IllegalStateException if the entity class is not a record
+     */
+    Object newInstance(Object[] arguments) {
+        if (canonicalConstructor == null)
+            throw new IllegalStateException("Entity class is not a record: " + clazz);
+        return canonicalConstructor.apply(arguments);
+    }
+
+    /**
+     * Checks the entity class is a {@code record}
+     *
+     * @return {@code true} if the properties are set through the canonical constructor
+     */
+    boolean isRecord() {
+        return canonicalConstructor != null;
+    }
+
+    /**
+     * Gives the legal entity properties - excluded FINAL, TRANSIENT and {@code @Transient} annotated
+     *
+     * @return properties in the declaration order
+     */
+    List<Property> properties() {
+        return properties;
+    }
+
+    List<Property> insertable() {
+        //TODO add the options from @Column
+        return properties;
+    }
+
+    List<Property> updatable() {
+        //TODO add the options from @Column
+        return updatable;
+    }
+
+    /**
+     * Gives the ID property
+     *
+     * @return ID property
+     * @throws IllegalStateException if {@code @Id} annotation not found
+     */
+    Property id() {
+        if (id == null)
+            throw new IllegalStateException("ID annotation not found in " + clazz);
+        return id;
+    }
+
+    /**
+     * Gives the property of the specified field
+     *
+     * @param field entity field
+     * @return property
+     */
+    Property property(Field field) {
+        return properties.stream()
+                .filter(p -> p.field().equals(field))
+                .findFirst()
+                .orElseGet(() -> Property.of(field));
+    }
+
+    /**
+     * Entity field descriptor with resolved column name and accessors
+     *
+     * @param field      entity field
+     * @param columnName DB column name
+     * @param getter     getter method or {@code null} if not found
+     * @param setter     setter method or {@code null} if not found
+     * @param reader     generated getter function or {@code null} if getter not found
+     * @param writer     generated setter function or {@code null} if setter not found
+     */
+    record Property(Field field,
+                    String columnName,
+                    Method getter,
+                    Method setter,
+                    Function<Object, Object> reader,
+                    BiConsumer<Object, Object> writer) {
+
+        static Property of(Field field) {
+            Method getter = findGetter(field);
+            Method setter = getter == null ? null : findSetter(field, getter.getReturnType());
+            return new Property(field,
+                    EntityHelper.getColumnName(field),
+                    getter,
+                    setter,
+                    getter == null ? null : Accessors.getter(getter),
+                    setter == null ? null : Accessors.setter(setter));
+        }
+
+        static Property of(RecordComponent component) {
+            Method accessor = component.getAccessor();
+            try {
+                Field field = component.getDeclaringRecord().getDeclaredField(component.getName());
+                return new Property(field,
+                        EntityHelper.getColumnName(field),
+                        accessor,
+                        null,
+                        Accessors.getter(accessor),
+                        null);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException("Record component field not found: " + component);
+            }
+        }
+
+        private static Method findGetter(Field field) {
+            try {
+                return EntityHelper.getGetter(field);
+            } catch (IllegalStateException e) {
+                return null;
+            }
+        }
+
+        private static Method findSetter(Field field, Class<?> type) {
+            try {
+                return EntityHelper.getSetter(field, type);
+            } catch (IllegalStateException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Gives the property value
+         *
+         * @param entityInstance object instance
+         * @return instance field value
+         * @throws IllegalStateException if getter not found
+         */
+        Object get(Object entityInstance) {
+            if (reader == null)
+                throw new IllegalStateException("Getter for <" + field.getName() + "> not found");
+            return reader.apply(entityInstance);
+        }
+
+        /**
+         * Sets the property value
+         *
+         * @param entityInstance object instance
+         * @param value          new value
+         * @throws IllegalStateException if setter not found
+         */
+        void set(Object entityInstance, Object value) {
+            if (writer == null)
+                throw new IllegalStateException("Setter for <" + field.getName() + "> not found");
+            writer.accept(entityInstance, value);
+        }
+
+        /**
+         * Gives the property value type
+         *
+         * @return getter return type or field type if getter not found
+         */
+        Class<?> type() {
+            return getter == null ? field.getType() : getter.getReturnType();
+        }
+
+        /**
+         * Asserts the property has a setter
+         *
+         * @return this property
+         * @throws IllegalStateException if setter not found
+         */
+        Property assertSetter() {
+            if (writer == null)
+                throw new IllegalStateException("Setter for <" + field.getName() + "> not found");
+            return this;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.jisj.tinyorm.dao;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Options of the bulk load, see {@link BaseDAO#load(java.util.stream.Stream, LoadOptions)}
+ * <pre>{@code
+ * LoadOptions options = LoadOptions.defaults()
+ *         .withWriters(8)
+ *         .withProgress(Duration.ofSeconds(10), result -> log.info(result.toString()));
+ * }</pre>
+ *
+ * @param chunkSize        count of the entities in one JDBC batch
+ * @param writers          count of the writer threads, each with own connection
+ * @param queueCapacity    count of the chunks waiting for the writers
+ * @param progressInterval minimum interval of the progress reports
+ * @param progress         progress listener
+ * @param rejects          listener of the rejected entities
+ */
+public record LoadOptions(int chunkSize,
+                          int writers,
+                          int queueCapacity,
+                          Duration progressInterval,
+                          Consumer<LoadResult> progress,
+                          BiConsumer<Object, SQLException> rejects) {
+    /**
+     * Default chunk size
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    /**
+     * Default count of the writers
+     */
+    public static final int DEFAULT_WRITERS = 4;
+
+    /**
+     * Checks the options
+     *
+     * @throws IllegalArgumentException when chunk size, writers count or queue capacity less than 1
+     */
+    public LoadOptions {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Unexpected chunk size: " + chunkSize);
+        if (writers < 1)
+            throw new IllegalArgumentException("Unexpected writers count: " + writers);
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("Unexpected queue capacity: " + queueCapacity);
+    }
+
+    /**
+     * Gives the default options: {@link LoadOptions#DEFAULT_CHUNK_SIZE} entities in the chunk,
+     * {@link LoadOptions#DEFAULT_WRITERS} writers, two chunks per writer in the queue, without listeners
+     *
+     * @return default options
+     */
+    public static LoadOptions defaults() {
+        return new LoadOptions(DEFAULT_CHUNK_SIZE, DEFAULT_WRITERS, 2 * DEFAULT_WRITERS, Duration.ZERO,
+                result -> {
+                }, (entity, e) -> {
+                });
+    }
+
+    /**
+     * Gives the options with the specified chunk size
+     *
+     * @param chunkSize count of the entities in one JDBC batch
+     * @return new options
+     */
+    public LoadOptions withChunkSize(int chunkSize) {
+        return new LoadOptions(chunkSize, writers, queueCapacity, progressInterval, progress, rejects);
+    }
+
+    /**
+     * Gives the options with the specified writers count and two chunks per writer in the queue
+     *
+     * @param writers count of the writer threads
+     * @return new options
+     */
+    public LoadOptions withWriters(int writers) {
+        return new LoadOptions(chunkSize, writers, 2 * writers, progressInterval, progress, rejects);
+    }
+
+    /**
+     * Gives the options with the specified queue capacity
+     *
+     * @param queueCapacity count of the chunks waiting for the writers
+     * @return new options
+     */
+    public LoadOptions withQueueCapacity(int queueCapacity) {
+        return new LoadOptions(chunkSize, writers, queueCapacity, progressInterval, progress, rejects);
+    }
+
+    /**
+     * Gives the options with the progress listener. The listener is called by the writers after the chunk
+     * not more often than the interval
+     *
+     * @param interval minimum interval of the reports
+     * @param progress progress listener
+     * @return new options
+     */
+    public LoadOptions withProgress(Duration interval, Consumer<LoadResult> progress) {
+        return new LoadOptions(chunkSize, writers, queueCapacity, interval, progress, rejects);
+    }
+
+    /**
+     * Gives the options with the listener of the rejected entities. The listener is called by the writers
+     * for every entity failed the insert
+     *
+     * @param rejects listener of the entity and its exception
+     * @return new options
+     */
+    public LoadOptions withRejects(BiConsumer<Object, SQLException> rejects) {
+        return new LoadOptions(chunkSize, writers, queueCapacity, progressInterval, progress, rejects);
+    }
+}
@@ -0,0 +1,23 @@
+package com.jisj.tinyorm.dao;
+
+import java.time.Duration;
+
+/**
+ * Progress and result of the bulk load
+ *
+ * @param loaded   count of the inserted entities
+ * @param rejected count of the rejected entities
+ * @param elapsed  time from the load start
+ */
+public record LoadResult(long loaded, long rejected, Duration elapsed) {
+
+    /**
+     * Gives the load throughput
+     *
+     * @return inserted entities per second
+     */
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : loaded * 1e9 / nanos;
+    }
+}
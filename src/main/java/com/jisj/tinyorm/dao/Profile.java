@@ -1,7 +1,9 @@
 package com.jisj.tinyorm.dao;
 
-import java.lang.reflect.Field;
-import java.util.stream.Stream;
+import com.jisj.tinyorm.ParameterBinder;
+
+import java.util.Optional;
+import java.util.logging.Logger;
 
 import static com.jisj.tinyorm.dao.EntityHelper.*;
 import static com.jisj.utils.StringMage.wrapInQuotes;
@@ -19,13 +21,22 @@ import static com.jisj.utils.StringMage.wrapInQuotes;
  * <ul>
  *      <li>name - column name</li>
  * </ul>
+ * <p>If the build time generated {@link EntityDescriptor} is found, the profile is taken from the descriptor</p>
  */
 final class Profile {
+    private static final Logger log = Logger.getLogger(Profile.class.getName());
+    private static final ClassValue<Optional<EntityDescriptor<?>>> DESCRIPTORS = new ClassValue<>() {
+        @Override
+        protected Optional<EntityDescriptor<?>> computeValue(Class<?> type) {
+            return findDescriptor(type);
+        }
+    };
     final Class<?> clazz;
-    EntityHelper.TableAnnotation annotationTable;
-    private boolean isCaseSensitive = false;
+    private final EntityDescriptor<Object> descriptor;
+    private String tableName;
     private String idColumnName;
-    private Field idField;
+    private ParameterBinder<Object> insertBinder;
+    private ParameterBinder<Object> updateBinder;
     String insertSQLQuery = "";
     String updateSQLQuery = "";
     String createTableQuery = "";
@@ -35,13 +46,51 @@ final class Profile {
      *
      * @param clazz entity class
      */
+    @SuppressWarnings("unchecked")
     Profile(Class<?> clazz) {
         this.clazz = clazz;
-        buildProfile();
+        this.descriptor = (EntityDescriptor<Object>) DESCRIPTORS.get(clazz).orElse(null);
+        if (descriptor == null)
+            buildProfile();
+        else
+            buildProfile(descriptor);
+    }
+
+    /**
+     * Gives the generated entity descriptor
+     *
+     * @return descriptor or empty Optional if the descriptor is not generated
+     */
+    Optional<EntityDescriptor<Object>> getDescriptor() {
+        return Optional.ofNullable(descriptor);
+    }
+
+    /**
+     * Gives the entity model
+     *
+     * @return entity model
+     */
+    EntityModel model() {
+        return EntityModel.of(clazz);
     }
 
-    Field getIdField() {
-        return idField;
+    /**
+     * Gives the ID field name
+     *
+     * @return ID field or record component name
+     */
+    String getIdFieldName() {
+        return descriptor == null ? model().id().field().getName() : descriptor.idFieldName();
+    }
+
+    /**
+     * Gives the ID value of the specified entity
+     *
+     * @param entityInstance entity instance
+     * @return ID field value
+     */
+    Object getIdValue(Object entityInstance) {
+        return descriptor == null ? model().id().get(entityInstance) : descriptor.idValue(entityInstance);
     }
 
     /**
@@ -50,23 +99,66 @@ final class Profile {
      * @return annotated table name or class name
      */
     String getTableName() {
-        return isCaseSensitive ? wrapInQuotes(annotationTable.name()) : annotationTable.name();
+        return tableName;
     }
 
     String getIdColumnName() {
-        return isCaseSensitive ? wrapInQuotes(idColumnName) : idColumnName;
+        return idColumnName;
+    }
+
+    /**
+     * Gives the binder of the insertable fields
+     *
+     * @return insert statement binder
+     */
+    ParameterBinder<Object> getInsertBinder() {
+        return insertBinder;
+    }
+
+    /**
+     * Gives the binder of the updatable fields and ID field at the end
+     *
+     * @return update statement binder
+     */
+    ParameterBinder<Object> getUpdateBinder() {
+        return updateBinder;
     }
 
     private void buildProfile() {
-        isCaseSensitive = isCaseSensitive(clazz);
-        annotationTable = getTableAnnotation(clazz);
+        boolean isCaseSensitive = isCaseSensitive(clazz);
+        EntityHelper.TableAnnotation annotationTable = getTableAnnotation(clazz);
+        EntityModel model = model();
+        tableName = isCaseSensitive ? wrapInQuotes(annotationTable.name()) : annotationTable.name();
+        idColumnName = isCaseSensitive ? wrapInQuotes(model.id().columnName()) : model.id().columnName();
         createTableQuery = formatBy(getCreateTableStatement(clazz), getTableName());
         insertSQLQuery = formatBy(getInsertRecordStatement(clazz), getTableName());
         updateSQLQuery = formatBy(getUpdateRecordStatement(clazz), getTableName());
+        insertBinder = EntityBinder.insert(model);
+        updateBinder = EntityBinder.update(model);
+    }
 
-        idField = EntityHelper.getIdField(clazz);
-        idColumnName = getColumnName(idField);
+    private void buildProfile(EntityDescriptor<Object> descriptor) {
+        tableName = descriptor.tableName();
+        idColumnName = descriptor.idColumnName();
+        createTableQuery = descriptor.createTableSql();
+        insertSQLQuery = descriptor.insertSql();
+        updateSQLQuery = descriptor.updateSql();
+        insertBinder = descriptor.insertBinder();
+        updateBinder = descriptor.updateBinder();
+    }
 
+    private static Optional<EntityDescriptor<?>> findDescriptor(Class<?> clazz) {
+        try {
+            Class<?> generated = Class.forName(EntityDescriptor.className(clazz), true, clazz.getClassLoader());
+            if (!EntityDescriptor.class.isAssignableFrom(generated))
+                return Optional.empty();
+            return Optional.of((EntityDescriptor<?>) generated.getConstructor().newInstance());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warning("Generated descriptor of %s is not loaded: %s".formatted(clazz, e));
+            return Optional.empty();
+        }
     }
 
     private String assertInsertSQL(String sql) {
@@ -79,18 +171,4 @@ final class Profile {
         return sql.contains("%s") ? sql.formatted(getTableName()) : sql;
     }
 
-
-    Object[] getInsertableFieldValues(Object entityInstance) {
-        return getInsertableFields(clazz)
-                .map(field -> getFieldValue(field, entityInstance))
-                .toArray();
-    }
-
-    Object[] getUpdatableFieldValues(Object entityInstance) {
-        return Stream.concat(
-                        getUpdatableFields(clazz)
-                                .map(field -> getFieldValue(field, entityInstance)),
-                        Stream.of(getFieldValue(idField, entityInstance)))
-                .toArray();
-    }
 }
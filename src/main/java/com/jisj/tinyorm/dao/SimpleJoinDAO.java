@@ -118,10 +118,12 @@ public class SimpleJoinDAO<ID, J, I> extends BaseDAO<SimpleJoinEntity<ID, J, I>,
      * @throws SQLException any database exception
      */
     public int delete(J joinColumnValue, I inverseColumnValue) throws SQLException {
-        try (var con = dataSource.getConnection();
+        try (var con = connection();
              var st = con.prepareStatement(deletePairStatement)) {
-            Jdbc.setParameters(st, joinColumnValue, inverseColumnValue);
+            Jdbc.setParameters(deletePairStatement, st, joinColumnValue, inverseColumnValue);
             return st.executeUpdate();
+        } finally {
+            evict(null);
         }
     }
 
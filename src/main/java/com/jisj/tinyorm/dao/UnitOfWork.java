@@ -0,0 +1,173 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.ParameterBinder;
+import com.jisj.tinyorm.Transaction;
+import com.jisj.tinyorm.function.ThrowingFunction;
+import com.jisj.tinyorm.utils.Jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Unit of work, which queues the DAO writes and executes them by JDBC batches
+ * <p>Inside the scope the {@code insert, update, delete} calls of the {@link BaseDAO} instances
+ * with the same DataSource are queued and return 1. The queue is flushed in the transaction
+ * of the scope: before any read, other DAO call or {@link com.jisj.tinyorm.Query} execution with the DataSource,
+ * by {@link UnitOfWork#flush()} and at the end of the scope.
+ * The flush groups the queued writes by SQL statement, each group is executed as one JDBC batch.
+ * The groups are executed in the order of their first write. If the entity is written by the other statement
+ * than its previous queued write, the collected groups are executed before, so the writes of one entity
+ * keep the call order.</p>
+ * <pre>{@code
+ * UnitOfWork.inUnitOfWork(ds, uow -> {
+ *     for (Order order : orders) {
+ *         orderDao.update(order);
+ *         itemDao.insert(order.newItem());
+ *     }
+ *     return null;
+ * });
+ * }</pre>
+ * <p>The scope is bound to the current thread</p>
+ */
+public final class UnitOfWork {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+    private final Transaction transaction;
+    private final UnitOfWork outer;
+    private final List<Write> pending = new ArrayList<>();
+
+    private record Write(BaseDAO<?, ?> dao, String sql, ParameterBinder<Object> binder, Object value, Object key) {
+    }
+
+    private UnitOfWork(Transaction transaction, UnitOfWork outer) {
+        this.transaction = transaction;
+        this.outer = outer;
+    }
+
+    /**
+     * Executes the work in the unit of work of the specified DataSource. The nested scope joins the current unit of work
+     *
+     * @param dataSource DataSource
+     * @param work       unit of work
+     * @param <R>        result type
+     * @return work result
+     * @throws SQLException any database exception, the transaction is rolled back
+     */
+    public static <R> R inUnitOfWork(DataSource dataSource, ThrowingFunction<UnitOfWork, R, SQLException> work)
+            throws SQLException {
+        Optional<UnitOfWork> current = current(dataSource);
+        if (current.isPresent())
+            return work.apply(current.get());
+
+        UnitOfWork outer = CURRENT.get();
+        return Transaction.inTransaction(dataSource, tx -> {
+            UnitOfWork uow = new UnitOfWork(tx, outer);
+            CURRENT.set(uow);
+            try {
+                R result = work.apply(uow);
+                uow.flush();
+                return result;
+            } finally {
+                uow.pending.clear();
+                if (outer == null)
+                    CURRENT.remove();
+                else
+                    CURRENT.set(outer);
+            }
+        });
+    }
+
+    /**
+     * Gives the unit of work of the specified DataSource, active in the current thread
+     *
+     * @param dataSource DataSource
+     * @return unit of work or empty Optional
+     */
+    public static Optional<UnitOfWork> current(DataSource dataSource) {
+        for (UnitOfWork uow = CURRENT.get(); uow != null; uow = uow.outer)
+            if (uow.transaction.getDataSource() == dataSource)
+                return Optional.of(uow);
+        return Optional.empty();
+    }
+
+    /**
+     * Gives the transaction of the unit of work
+     *
+     * @return transaction
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * Gives the count of the queued writes
+     *
+     * @return writes count
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Queues the write
+     *
+     * @param dao    DAO of the write
+     * @param sql    SQL statement
+     * @param binder binder of the statement parameters
+     * @param value  bound value
+     * @param id     ID of the written entity or {@code null} if unknown
+     */
+    @SuppressWarnings("unchecked")
+    void add(BaseDAO<?, ?> dao, String sql, ParameterBinder<?> binder, Object value, Object id) {
+        pending.add(new Write(dao, sql, (ParameterBinder<Object>) binder, value,
+                id == null ? null : List.of(dao.getTableName(), id)));
+    }
+
+    /**
+     * Executes the queued writes
+     *
+     * @throws SQLException any database exception
+     */
+    public void flush() throws SQLException {
+        if (pending.isEmpty())
+            return;
+        List<Write> writes = List.copyOf(pending);
+        pending.clear();
+        Connection con = transaction.getConnection();
+        Map<String, List<Write>> groups = new LinkedHashMap<>();
+        Map<Object, String> lastStatements = new HashMap<>();
+        for (Write write : writes) {
+            if (write.key() != null) {
+                String last = lastStatements.put(write.key(), write.sql());
+                if (last != null && !last.equals(write.sql())) {
+                    execute(con, groups);
+                    groups.clear();
+                    lastStatements.clear();
+                    lastStatements.put(write.key(), write.sql());
+                }
+            }
+            groups.computeIfAbsent(write.sql(), sql -> new ArrayList<>()).add(write);
+        }
+        execute(con, groups);
+    }
+
+    private static void execute(Connection con, Map<String, List<Write>> groups) throws SQLException {
+        for (Map.Entry<String, List<Write>> group : groups.entrySet()) {
+            final String SQL = group.getKey();
+            final int batchSize = group.getValue().get(0).dao().getBatchSize();
+            try (PreparedStatement st = con.prepareStatement(SQL)) {
+                int count = 0;
+                for (Write write : group.getValue()) {
+                    Jdbc.assertParameterCount(SQL, st, write.binder().bind(st, 1, write.value()) - 1);
+                    st.addBatch();
+                    if (++count % batchSize == 0)
+                        st.executeBatch();
+                }
+                if (count % batchSize != 0)
+                    st.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jisj.tinyorm.dao;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Upsert statements of the single row {@code INSERT INTO table (columns) VALUES (...)} statement
+ * <p>The {@code VALUES} row is kept as is, so the upsert statement has the parameters of the insert statement</p>
+ */
+final class UpsertInsert {
+    private static final Pattern INSERT = Pattern.compile(
+            "(?is)^\\s*INSERT\\s+INTO\\s+(\\S+)\\s*\\(([^()]*)\\)\\s*VALUES\\s*(\\((?:[^()']|'[^']*'|\\([^()]*\\))*\\))\\s*;?\\s*$");
+    private final String insertStatement;
+    private final String tableName;
+    private final List<String> columns;
+    private final String row;
+    private final String idColumnName;
+    private final Map<Dialect, String> statements = new ConcurrentHashMap<>();
+
+    private UpsertInsert(String insertStatement, String tableName, List<String> columns, String row, String idColumnName) {
+        this.insertStatement = insertStatement;
+        this.tableName = tableName;
+        this.columns = columns;
+        this.row = row;
+        this.idColumnName = idColumnName;
+    }
+
+    /**
+     * Parses the single row insert statement
+     *
+     * @param insertStatement statement with the column list and one {@code VALUES (...)} row
+     * @param idColumnName    ID column name
+     * @return upsert statements
+     * @throws IllegalStateException when the statement has not the column list, the {@code VALUES (...)} row
+     *                               with one value per column at the end or the ID column
+     */
+    static UpsertInsert of(String insertStatement, String idColumnName) {
+        Matcher matcher = INSERT.matcher(insertStatement);
+        if (!matcher.matches())
+            throw new IllegalStateException("Upsert is not available for the insert statement: " + insertStatement);
+        List<String> columns = Arrays.stream(matcher.group(2).split(","))
+                .map(String::trim)
+                .toList();
+        String row = matcher.group(3);
+        if (values(row) != columns.size())
+            throw new IllegalStateException("Unexpected values count of the insert statement: " + insertStatement);
+        if (columns.stream().noneMatch(column -> column.equalsIgnoreCase(idColumnName)))
+            throw new IllegalStateException("ID column <%s> is not inserted by the statement: %s"
+                    .formatted(idColumnName, insertStatement));
+        return new UpsertInsert(insertStatement, matcher.group(1), columns, row, idColumnName);
+    }
+
+    private static int values(String row) {
+        int count = 1;
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = 1; i < row.length() - 1; i++) {
+            char c = row.charAt(i);
+            if (c == '\'')
+                quoted = !quoted;
+            else if (!quoted && c == '(')
+                depth++;
+            else if (!quoted && c == ')')
+                depth--;
+            else if (!quoted && depth == 0 && c == ',')
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gives the parsed insert statement
+     *
+     * @return insert statement
+     */
+    String insertStatement() {
+        return insertStatement;
+    }
+
+    /**
+     * Gives the upsert statement of the dialect
+     *
+     * @param dialect database dialect
+     * @return SQL statement with the parameters of the insert statement
+     * @throws UnsupportedOperationException for {@link Dialect#GENERIC}
+     */
+    String sql(Dialect dialect) {
+        return statements.computeIfAbsent(dialect, current -> current.upsertSql(tableName, columns, row, idColumnName));
+    }
+}
@@ -0,0 +1,75 @@
+package com.jisj.tinyorm.dao;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Multi-row {@code INSERT INTO table (columns) VALUES (?,?),(?,?),...} statements of the single row insert statement
+ */
+final class ValuesInsert {
+    private static final Pattern VALUES = Pattern.compile("(?is)^(.*\\bVALUES\\s*)(\\([^()]*\\))\\s*;?\\s*$");
+    private final String insertStatement;
+    private final String prefix;
+    private final String row;
+    private final int parametersPerRow;
+    private final Map<Integer, String> statements = new ConcurrentHashMap<>();
+
+    private ValuesInsert(String insertStatement, String prefix, String row) {
+        this.insertStatement = insertStatement;
+        this.prefix = prefix;
+        this.row = row;
+        this.parametersPerRow = (int) row.chars().filter(c -> c == '?').count();
+    }
+
+    /**
+     * Parses the single row insert statement
+     *
+     * @param insertStatement statement with one {@code VALUES (...)} row
+     * @return multi-row statements
+     * @throws IllegalStateException when the statement has not the {@code VALUES (...)} row at the end
+     */
+    static ValuesInsert of(String insertStatement) {
+        Matcher matcher = VALUES.matcher(insertStatement);
+        if (!matcher.matches())
+            throw new IllegalStateException("Multi-row insert is not available for the statement: " + insertStatement);
+        return new ValuesInsert(insertStatement, matcher.group(1), matcher.group(2));
+    }
+
+    /**
+     * Gives the parsed insert statement
+     *
+     * @return insert statement
+     */
+    String insertStatement() {
+        return insertStatement;
+    }
+
+    /**
+     * Gives the count of the parameters of one row
+     *
+     * @return parameters count
+     */
+    int parametersPerRow() {
+        return parametersPerRow;
+    }
+
+    /**
+     * Gives the statement inserting the specified count of rows
+     *
+     * @param rows rows count
+     * @return SQL statement
+     */
+    String sql(int rows) {
+        return statements.computeIfAbsent(rows, count -> {
+            StringBuilder sql = new StringBuilder(prefix.length() + count * (row.length() + 1)).append(prefix);
+            for (int i = 0; i < count; i++) {
+                if (i > 0)
+                    sql.append(',');
+                sql.append(row);
+            }
+            return sql.toString();
+        });
+    }
+}
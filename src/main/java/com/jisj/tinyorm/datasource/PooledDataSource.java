@@ -0,0 +1,423 @@
+package com.jisj.tinyorm.datasource;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Fixed size pool of the connections of the target DataSource
+ * <p>The checkout is limited by the fair semaphore, so the waiting threads get the connections in the arrival order
+ * and the virtual threads are not pinned while waiting. The physical connections are opened on demand,
+ * the idle connection is validated by {@link Connection#isValid(int)} on borrow.
+ * The closed logical connection returns the physical connection to the pool
+ * with closed statements, rolled back transaction and restored auto-commit mode.
+ * The {@code getConnection()} of the statements gives the logical connection</p>
+ * <pre>{@code
+ * PooledDataSource ds = new PooledDataSource(sqliteDataSource, 10);
+ * DAO<Entity, Long> dao = new BaseDAO<>(ds, Entity.class);
+ * ...
+ * ds.close();
+ * }</pre>
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+    /**
+     * Default maximum time of the connection waiting
+     */
+    public static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+    /**
+     * Default connection validation timeout, seconds
+     */
+    public static final int DEFAULT_VALIDATION_TIMEOUT = 1;
+    private final DataSource dataSource;
+    private final int maxSize;
+    private final Semaphore permits;
+    private final Deque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final AtomicLong maxAcquireWaitNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private volatile Duration acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+    private volatile int validationTimeout = DEFAULT_VALIDATION_TIMEOUT;
+    private volatile boolean closed;
+
+    /**
+     * Creates the pool
+     *
+     * @param dataSource target DataSource
+     * @param maxSize    maximum count of the physical connections
+     * @throws IllegalArgumentException when max size less than 1
+     */
+    public PooledDataSource(DataSource dataSource, int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Unexpected pool size: " + maxSize);
+        this.dataSource = dataSource;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Sets the maximum time of the connection waiting, {@link PooledDataSource#DEFAULT_ACQUIRE_TIMEOUT} by default
+     *
+     * @param acquireTimeout waiting time
+     */
+    public void setAcquireTimeout(Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Sets the validation timeout of the idle connection, {@link PooledDataSource#DEFAULT_VALIDATION_TIMEOUT} by default
+     *
+     * @param seconds validation timeout, 0 for no timeout
+     */
+    public void setValidationTimeout(int seconds) {
+        this.validationTimeout = seconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed)
+            throw new SQLException("Pool is closed");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException("Connection is not available, timed out after %d ms"
+                        .formatted(acquireTimeout.toMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the connection", e);
+        }
+        long wait = System.nanoTime() - start;
+        acquireCount.increment();
+        acquireWaitNanos.add(wait);
+        maxAcquireWaitNanos.accumulateAndGet(wait, Math::max);
+        try {
+            return wrap(borrow());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Not supported, the pool connections are opened with the target DataSource credentials
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool connections use the target DataSource credentials");
+    }
+
+    private Connection borrow() throws SQLException {
+        Connection con;
+        while ((con = idle.pollFirst()) != null) {
+            if (isValid(con))
+                return con;
+            closeQuietly(con);
+        }
+        con = dataSource.getConnection();
+        createdCount.increment();
+        return con;
+    }
+
+    private boolean isValid(Connection con) {
+        try {
+            return con.isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void giveBack(Connection con) {
+        try {
+            if (!con.isClosed()) {
+                if (!con.getAutoCommit()) {
+                    con.rollback();
+                    con.setAutoCommit(true);
+                }
+                if (!closed) {
+                    idle.offerFirst(con);
+                    return;
+                }
+            }
+        } catch (SQLException e) {
+            // the broken connection is discarded
+        } finally {
+            permits.release();
+        }
+        closeQuietly(con);
+    }
+
+    private static void closeQuietly(Connection con) {
+        try {
+            con.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private Connection wrap(Connection con) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnection(con));
+    }
+
+    /**
+     * Closes the idle connections. The borrowed connections are closed on return to the pool
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection con;
+        while ((con = idle.pollFirst()) != null)
+            closeQuietly(con);
+    }
+
+    /**
+     * Gives the maximum count of the physical connections
+     *
+     * @return pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gives the count of the borrowed connections
+     *
+     * @return active connections count
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * Gives the count of the idle physical connections
+     *
+     * @return idle connections count
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Gives the estimated count of the threads waiting for the connection
+     *
+     * @return waiting threads count
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Gives the count of the opened physical connections
+     *
+     * @return created connections count
+     */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /**
+     * Gives the count of the successful checkouts
+     *
+     * @return acquired connections count
+     */
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    /**
+     * Gives the count of the checkouts failed by the acquire timeout
+     *
+     * @return timeouts count
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /**
+     * Gives the total time of the connection waiting
+     *
+     * @return waiting time of all successful checkouts
+     */
+    public Duration getTotalAcquireWait() {
+        return Duration.ofNanos(acquireWaitNanos.sum());
+    }
+
+    /**
+     * Gives the maximum time of the connection waiting
+     *
+     * @return maximum waiting time of the successful checkout
+     */
+    public Duration getMaxAcquireWait() {
+        return Duration.ofNanos(maxAcquireWaitNanos.get());
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+
+    /**
+     * Logical connection, returns the physical connection to the pool on close
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection con;
+        private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+
+        PooledConnection(Connection con) {
+            this.con = con;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        closeStatements();
+                        giveBack(con);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || con.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + con;
+                }
+                case "unwrap" -> {
+                    if (args[0] == Connection.class)
+                        return con;
+                }
+                case "isWrapperFor" -> {
+                    if (args[0] == Connection.class)
+                        return true;
+                }
+            }
+            if (closed)
+                throw new SQLException("Connection is closed");
+            Object result = call(con, method, args);
+            if (result instanceof Statement st) {
+                statements.add(st);
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()}, new PooledStatement(this, (Connection) proxy, st));
+            }
+            return result;
+        }
+
+        private void closeStatements() {
+            for (Statement st : List.copyOf(statements)) {
+                try {
+                    st.close();
+                } catch (SQLException ignored) {
+                    // the statement is closed with the physical connection
+                }
+            }
+            statements.clear();
+        }
+    }
+
+    /**
+     * Statement of the logical connection, gives the logical connection by {@code getConnection()}
+     */
+    private static final class PooledStatement implements InvocationHandler {
+        private final PooledConnection connection;
+        private final Connection proxy;
+        private final Statement st;
+
+        PooledStatement(PooledConnection connection, Connection proxy, Statement st) {
+            this.connection = connection;
+            this.proxy = proxy;
+            this.st = st;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    connection.statements.remove(st);
+                    st.close();
+                    return null;
+                }
+                case "getConnection" -> {
+                    return this.proxy;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return st.toString();
+                }
+            }
+            return call(st, method, args);
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.jisj.tinyorm.datasource;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * DataSource wrapper with the cache of prepared statements
+ * <p>Keeps the bounded LRU cache of the prepared statements per physical connection, keyed by the SQL string,
+ * result set type and concurrency. The closed statement returns to the cache and is taken
+ * by the next {@code prepareStatement} call with the same SQL on the same physical connection.
+ * The statement prepared with the generated keys or column options is not cached.
+ * The attributes changed by the statement user, e.g. fetch size or query timeout, are restored
+ * before the statement returns to the cache, the statement with the changed escape processing, cursor name
+ * or close on completion is closed.</p>
+ * <p>The cache is useful with the pooled DataSource, which reuses the physical connections:</p>
+ * <pre>{@code
+ * DataSource ds = new StatementCachingDataSource(pooledDataSource, 128);
+ * DAO<Entity, Long> dao = new BaseDAO<>(ds, Entity.class);
+ * }</pre>
+ */
+public class StatementCachingDataSource implements DataSource {
+    /**
+     * Default count of the cached statements per connection
+     */
+    public static final int DEFAULT_CACHE_SIZE = 64;
+    private final DataSource dataSource;
+    private final int cacheSize;
+    private final Map<Connection, StatementCache> caches = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates the caching DataSource with {@link StatementCachingDataSource#DEFAULT_CACHE_SIZE}
+     *
+     * @param dataSource target DataSource
+     */
+    public StatementCachingDataSource(DataSource dataSource) {
+        this(dataSource, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates the caching DataSource
+     *
+     * @param dataSource target DataSource
+     * @param cacheSize  maximum count of the cached statements per connection
+     * @throws IllegalArgumentException when cache size less than 1
+     */
+    public StatementCachingDataSource(DataSource dataSource, int cacheSize) {
+        if (cacheSize < 1)
+            throw new IllegalArgumentException("Unexpected cache size: " + cacheSize);
+        this.dataSource = dataSource;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Gives the count of the statements taken from the cache
+     *
+     * @return hits count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gives the count of the statements prepared by the connection
+     *
+     * @return misses count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gives the count of the statements closed by the cache overflow
+     *
+     * @return evictions count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(dataSource.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(dataSource.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection con) throws SQLException {
+        Connection physical = con.isWrapperFor(Connection.class) ? con.unwrap(Connection.class) : con;
+        StatementCache cache = caches.get(physical);
+        if (cache == null) {
+            caches.keySet().removeIf(StatementCachingDataSource::isClosed);
+            cache = caches.computeIfAbsent(physical, key -> new StatementCache());
+        }
+        CachingConnection handler = new CachingConnection(con, physical, cache);
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    private static boolean isClosed(Connection con) {
+        try {
+            return con.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+
+    private record Key(String sql, int resultSetType, int resultSetConcurrency) {
+    }
+
+    /**
+     * LRU cache of the idle statements of one physical connection
+     */
+    private final class StatementCache {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Key, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PreparedStatement take(Key key) {
+            lock.lock();
+            try {
+                return statements.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Key key, PreparedStatement st) throws SQLException {
+            try {
+                st.clearParameters();
+                st.clearBatch();
+            } catch (SQLException e) {
+                st.close();
+                return;
+            }
+            PreparedStatement closing = null;
+            lock.lock();
+            try {
+                if (statements.containsKey(key)) {
+                    closing = st;
+                } else {
+                    statements.put(key, st);
+                    if (statements.size() > cacheSize) {
+                        Iterator<PreparedStatement> eldest = statements.values().iterator();
+                        closing = eldest.next();
+                        eldest.remove();
+                        evictions.increment();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (closing != null)
+                closing.close();
+        }
+    }
+
+    /**
+     * Logical connection, takes the prepared statements from the cache
+     */
+    private final class CachingConnection implements InvocationHandler {
+        private final Connection con;
+        private final Connection physical;
+        private final StatementCache cache;
+        private final List<CachedStatement> open = new ArrayList<>();
+        private Connection proxy;
+        private boolean closed;
+
+        CachingConnection(Connection con, Connection physical, StatementCache cache) {
+            this.con = con;
+            this.physical = physical;
+            this.cache = cache;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    close();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || con.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Caching " + con;
+                }
+            }
+            if (closed)
+                throw new SQLException("Connection is closed");
+            if (method.getName().equals("prepareStatement")) {
+                Key key = key(args);
+                if (key != null)
+                    return prepare(key);
+            }
+            return StatementCachingDataSource.invoke(con, method, args);
+        }
+
+        private Key key(Object[] args) {
+            if (args.length == 1)
+                return new Key((String) args[0], ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (args.length == 3 && args[1] instanceof Integer type && args[2] instanceof Integer concurrency)
+                return new Key((String) args[0], type, concurrency);
+            return null;
+        }
+
+        private PreparedStatement prepare(Key key) throws SQLException {
+            PreparedStatement st = cache.take(key);
+            if (st != null && !st.isClosed()) {
+                hits.increment();
+            } else {
+                misses.increment();
+                st = physical.prepareStatement(key.sql(), key.resultSetType(), key.resultSetConcurrency());
+            }
+            CachedStatement handler = new CachedStatement(this, key, st);
+            open.add(handler);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        private void close() throws SQLException {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                for (CachedStatement statement : List.copyOf(open))
+                    statement.close();
+            } finally {
+                con.close();
+            }
+        }
+    }
+
+    /**
+     * Logical statement, returns the physical statement to the cache on close
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        /**
+         * Setters of the statement attributes and the getters of the values to restore
+         */
+        private static final Map<String, String> ATTRIBUTES = Map.of(
+                "setFetchSize", "getFetchSize",
+                "setFetchDirection", "getFetchDirection",
+                "setMaxRows", "getMaxRows",
+                "setLargeMaxRows", "getLargeMaxRows",
+                "setMaxFieldSize", "getMaxFieldSize",
+                "setQueryTimeout", "getQueryTimeout",
+                "setPoolable", "isPoolable");
+        private static final Set<String> NOT_RESTORABLE = Set.of("setEscapeProcessing", "setCursorName", "closeOnCompletion");
+        private final CachingConnection connection;
+        private final Key key;
+        private final PreparedStatement st;
+        private final List<ResultSet> results = new ArrayList<>(1);
+        private final Map<Method, Object> attributes = new LinkedHashMap<>();
+        private boolean reusable = true;
+        private boolean closed;
+
+        CachedStatement(CachingConnection connection, Key key, PreparedStatement st) {
+            this.connection = connection;
+            this.key = key;
+            this.st = st;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    close();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || st.isClosed();
+                }
+                case "getConnection" -> {
+                    return connection.proxy;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return st.toString();
+                }
+            }
+            if (closed)
+                throw new SQLException("Statement is closed");
+            if (ATTRIBUTES.containsKey(method.getName()))
+                keep(method);
+            else if (NOT_RESTORABLE.contains(method.getName()))
+                reusable = false;
+            Object result = StatementCachingDataSource.invoke(st, method, args);
+            if (result instanceof ResultSet rs)
+                results.add(rs);
+            return result;
+        }
+
+        private void keep(Method setter) {
+            if (!reusable || attributes.containsKey(setter))
+                return;
+            try {
+                attributes.put(setter, Statement.class.getMethod(ATTRIBUTES.get(setter.getName())).invoke(st));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                reusable = false;
+            }
+        }
+
+        private boolean restore() {
+            if (!reusable)
+                return false;
+            try {
+                for (Map.Entry<Method, Object> attribute : attributes.entrySet())
+                    attribute.getKey().invoke(st, attribute.getValue());
+                return true;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return false;
+            }
+        }
+
+        void close() throws SQLException {
+            if (closed)
+                return;
+            closed = true;
+            connection.open.remove(this);
+            try {
+                for (ResultSet rs : results)
+                    rs.close();
+            } catch (SQLException e) {
+                st.close();
+                throw e;
+            }
+            if (restore())
+                connection.cache.release(key, st);
+            else
+                st.close();
+        }
+    }
+}
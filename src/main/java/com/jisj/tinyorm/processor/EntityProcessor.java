@@ -0,0 +1,448 @@
+package com.jisj.tinyorm.processor;
+
+import com.jisj.tinyorm.dao.EntityDescriptor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Build time generator of {@link EntityDescriptor} implementations
+ * <p>For every class or record with the {@code jakarta.persistence.Id} annotated field the processor generates
+ * the class {@code <EntityClass>_TinyOrm} with the mapper, the parameter binders and the SQL strings.
+ * {@code BaseDAO} finds the generated class and uses it instead of the runtime reflection</p>
+ * <p>The processor is optional and is not registered as a service. Enable it by compiler option
+ * {@code -processor com.jisj.tinyorm.processor.EntityProcessor} or by {@code annotationProcessors} of
+ * {@code maven-compiler-plugin}. With Lombok the Lombok processor must be the first</p>
+ * <p>An entity that cannot be compiled to plain Java (private accessors, unknown field types, generic class)
+ * is skipped with a note, and the runtime reflection is used for it</p>
+ */
+@SupportedAnnotationTypes("jakarta.persistence.Id")
+public class EntityProcessor extends AbstractProcessor {
+    private static final String TABLE = "jakarta.persistence.Table";
+    private static final String COLUMN = "jakarta.persistence.Column";
+    private static final String TRANSIENT = "jakarta.persistence.Transient";
+    private static final String ID = "jakarta.persistence.Id";
+    private static final String CRUD_DDL = "com.jisj.tinyorm.annotation.CrudDdl";
+    private static final String CASE_SENSITIVE = "com.jisj.tinyorm.annotation.CaseSensitive";
+    private static final String RESULT_MAPPER = "com.jisj.tinyorm.annotation.ResultMapper";
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> entities = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations)
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation))
+                if (element.getEnclosingElement() instanceof TypeElement type)
+                    entities.add(type);
+        for (TypeElement entity : entities)
+            if (generated.add(entity.getQualifiedName().toString()))
+                generate(entity);
+        return false;
+    }
+
+    private void generate(TypeElement entity) {
+        try {
+            EntitySource source = new EntitySource(entity);
+            try (Writer writer = processingEnv.getFiler()
+                    .createSourceFile(source.packageName + "." + source.className, entity)
+                    .openWriter()) {
+                writer.write(source.generate());
+            }
+        } catch (UnsupportedEntityException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Descriptor is not generated, runtime reflection is used: " + e.getMessage(), entity);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Descriptor is not written: " + e.getMessage(), entity);
+        }
+    }
+
+    private static Optional<? extends AnnotationMirror> findAnnotation(Element element, String annotationName) {
+        return element.getAnnotationMirrors().stream()
+                .filter(a -> ((TypeElement) a.getAnnotationType().asElement()).getQualifiedName()
+                        .contentEquals(annotationName))
+                .findFirst();
+    }
+
+    private Optional<Object> annotationValue(Element element, String annotationName, String attribute) {
+        return findAnnotation(element, annotationName)
+                .flatMap(a -> processingEnv.getElementUtils().getElementValuesWithDefaults(a).entrySet().stream()
+                        .filter(e -> e.getKey().getSimpleName().contentEquals(attribute))
+                        .map(e -> e.getValue().getValue())
+                        .findFirst());
+    }
+
+    private String stringValue(Element element, String annotationName, String attribute) {
+        return annotationValue(element, annotationName, attribute)
+                .map(String.class::cast)
+                .orElse("");
+    }
+
+    private static String capitalize(String s) {
+        return s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private static String literal(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Supported column type: {@code ResultSet} getter, {@code PreparedStatement} setter and {@code java.sql.Types} for null
+     *
+     * @param getter  ResultSet getter name
+     * @param setter  PreparedStatement setter name
+     * @param sqlType java.sql.Types constant name
+     */
+    private record ColumnType(String getter, String setter, String sqlType) {
+        private static final Map<String, ColumnType> TYPES = Map.ofEntries(
+                Map.entry("long", new ColumnType("getLong", "setLong", "BIGINT")),
+                Map.entry("java.lang.Long", new ColumnType("getLong", "setLong", "BIGINT")),
+                Map.entry("boolean", new ColumnType("getBoolean", "setBoolean", "BOOLEAN")),
+                Map.entry("java.lang.Boolean", new ColumnType("getBoolean", "setBoolean", "BOOLEAN")),
+                Map.entry("java.sql.Date", new ColumnType("getDate", "setDate", "DATE")),
+                Map.entry("int", new ColumnType("getInt", "setInt", "INTEGER")),
+                Map.entry("java.lang.Integer", new ColumnType("getInt", "setInt", "INTEGER")),
+                Map.entry("java.sql.Time", new ColumnType("getTime", "setTime", "TIME")),
+                Map.entry("java.sql.Timestamp", new ColumnType("getTimestamp", "setTimestamp", "TIMESTAMP")),
+                Map.entry("float", new ColumnType("getFloat", "setFloat", "REAL")),
+                Map.entry("java.lang.Float", new ColumnType("getFloat", "setFloat", "REAL")),
+                Map.entry("double", new ColumnType("getDouble", "setDouble", "DOUBLE")),
+                Map.entry("java.lang.Double", new ColumnType("getDouble", "setDouble", "DOUBLE")),
+                Map.entry("java.lang.String", new ColumnType("getString", "setString", "VARCHAR")),
+                Map.entry("java.lang.Object", new ColumnType("getObject", "setObject", "NULL")));
+
+        static ColumnType of(TypeMirror type) {
+            return TYPES.get(type.getKind().isPrimitive() ? type.getKind().name().toLowerCase() : type.toString());
+        }
+    }
+
+    /**
+     * Entity property
+     *
+     * @param name       field name
+     * @param columnName column name
+     * @param type       field type
+     * @param getter     getter or record accessor name
+     * @param setter     setter name or {@code null} for record component
+     */
+    private record Property(String name, String columnName, TypeMirror type, String getter, String setter) {
+
+        ColumnType columnType() {
+            return ColumnType.of(type);
+        }
+
+        String typeName() {
+            return type.toString();
+        }
+    }
+
+    private static class UnsupportedEntityException extends Exception {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedEntityException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Source builder of the entity descriptor
+     */
+    private class EntitySource {
+        final TypeElement entity;
+        final String packageName;
+        final String className;
+        final String entityName;
+        final boolean isRecord;
+        final List<Property> properties = new ArrayList<>();
+        final Property id;
+        final ExecutableElement resultMapper;
+        final String tableName;
+        final String idColumnName;
+
+        EntitySource(TypeElement entity) throws UnsupportedEntityException {
+            this.entity = entity;
+            assertEntity(entity);
+            PackageElement pkg = processingEnv.getElementUtils().getPackageOf(entity);
+            this.packageName = pkg.getQualifiedName().toString();
+            String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+            this.className = binaryName.substring(packageName.length() + 1).replace('$', '_') + EntityDescriptor.SUFFIX;
+            this.entityName = entity.getQualifiedName().toString();
+            this.isRecord = entity.getKind() == ElementKind.RECORD;
+            this.resultMapper = ElementFilter.methodsIn(entity.getEnclosedElements()).stream()
+                    .filter(m -> findAnnotation(m, RESULT_MAPPER).isPresent())
+                    .findFirst()
+                    .orElse(null);
+            if (isRecord)
+                for (RecordComponentElement component : entity.getRecordComponents())
+                    properties.add(recordProperty(component));
+            else
+                for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements()))
+                    if (isLegal(field))
+                        properties.add(beanProperty(field));
+            VariableElement idField = ElementFilter.fieldsIn(entity.getEnclosedElements()).stream()
+                    .filter(f -> findAnnotation(f, ID).isPresent())
+                    .findFirst()
+                    .orElseThrow(() -> new UnsupportedEntityException("ID field not found in " + entity));
+            this.id = properties.stream()
+                    .filter(p -> p.name().equals(idField.getSimpleName().toString()))
+                    .findFirst()
+                    .orElse(isRecord ? null : beanProperty(idField));
+            if (id == null)
+                throw new UnsupportedEntityException("ID field is not a record component in " + entity);
+            if (resultMapper == null)
+                assertDefaultMapper();
+            else
+                assertResultMapper();
+
+            boolean caseSensitive = findAnnotation(entity, CASE_SENSITIVE).isPresent() &&
+                    (Boolean) annotationValue(entity, CASE_SENSITIVE, "caseSensitive").orElse(true);
+            String table = stringValue(entity, TABLE, "name");
+            table = table.isEmpty() ? entity.getSimpleName().toString() : table;
+            this.tableName = caseSensitive ? "\"" + table + "\"" : table;
+            this.idColumnName = caseSensitive ? "\"" + id.columnName() + "\"" : id.columnName();
+        }
+
+        private void assertEntity(TypeElement entity) throws UnsupportedEntityException {
+            if (entity.getKind() != ElementKind.CLASS && entity.getKind() != ElementKind.RECORD)
+                throw new UnsupportedEntityException("Not a class: " + entity);
+            if (!entity.getTypeParameters().isEmpty())
+                throw new UnsupportedEntityException("Generic class: " + entity);
+            if (entity.getModifiers().contains(Modifier.ABSTRACT))
+                throw new UnsupportedEntityException("Abstract class: " + entity);
+            if (processingEnv.getElementUtils().getPackageOf(entity).isUnnamed())
+                throw new UnsupportedEntityException("Class in unnamed package: " + entity);
+            for (Element e = entity; e instanceof TypeElement type; e = e.getEnclosingElement()) {
+                if (type.getModifiers().contains(Modifier.PRIVATE))
+                    throw new UnsupportedEntityException("Private class: " + type);
+                if (type.getNestingKind() == NestingKind.MEMBER && type.getKind() == ElementKind.CLASS &&
+                        !type.getModifiers().contains(Modifier.STATIC))
+                    throw new UnsupportedEntityException("Inner class: " + type);
+                if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS)
+                    throw new UnsupportedEntityException("Local class: " + type);
+            }
+        }
+
+        private boolean isLegal(VariableElement field) {
+            Set<Modifier> modifiers = field.getModifiers();
+            return !modifiers.contains(Modifier.STATIC) &&
+                    !modifiers.contains(Modifier.FINAL) &&
+                    !modifiers.contains(Modifier.TRANSIENT) &&
+                    findAnnotation(field, TRANSIENT).isEmpty();
+        }
+
+        private String columnName(Element element, String name) {
+            String column = stringValue(element, COLUMN, "name");
+            return column.isEmpty() ? name : column;
+        }
+
+        private Property recordProperty(RecordComponentElement component) throws UnsupportedEntityException {
+            String name = component.getSimpleName().toString();
+            VariableElement field = ElementFilter.fieldsIn(entity.getEnclosedElements()).stream()
+                    .filter(f -> f.getSimpleName().contentEquals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new UnsupportedEntityException("Record component field not found: " + name));
+            if (component.getAccessor().getModifiers().contains(Modifier.PRIVATE))
+                throw new UnsupportedEntityException("Private accessor of <" + name + ">");
+            return new Property(name, columnName(field, name), component.asType(), name, null);
+        }
+
+        private Property beanProperty(VariableElement field) throws UnsupportedEntityException {
+            String name = field.getSimpleName().toString();
+            TypeMirror type = field.asType();
+            String getter = (type.getKind() == TypeKind.BOOLEAN ? "is" : "get") + capitalize(name);
+            ExecutableElement getterMethod = findMethod(getter, 0)
+                    .orElseThrow(() -> new UnsupportedEntityException("Getter for <" + name + "> not found"));
+            String setter = "set" + capitalize(name);
+            boolean setterFound = findMethod(setter, 1)
+                    .filter(m -> processingEnv.getTypeUtils()
+                            .isSameType(m.getParameters().get(0).asType(), getterMethod.getReturnType()))
+                    .isPresent();
+            return new Property(name, columnName(field, name), getterMethod.getReturnType(), getter,
+                    setterFound ? setter : null);
+        }
+
+        private Optional<ExecutableElement> findMethod(String name, int parameterCount) throws UnsupportedEntityException {
+            Optional<ExecutableElement> method = ElementFilter.methodsIn(entity.getEnclosedElements()).stream()
+                    .filter(m -> m.getSimpleName().contentEquals(name))
+                    .filter(m -> m.getParameters().size() == parameterCount)
+                    .filter(m -> !m.getModifiers().contains(Modifier.STATIC))
+                    .findFirst();
+            if (method.isPresent() && method.get().getModifiers().contains(Modifier.PRIVATE))
+                throw new UnsupportedEntityException("Private method <" + name + ">");
+            return method;
+        }
+
+        private void assertDefaultMapper() throws UnsupportedEntityException {
+            for (Property p : properties) {
+                if (p.columnType() == null)
+                    throw new UnsupportedEntityException("Unknown data type: " + p.type() + " for column <" + p.columnName() + ">");
+                if (!isRecord && p.setter() == null)
+                    throw new UnsupportedEntityException("Setter for <" + p.name() + "> not found");
+            }
+            if (!isRecord && ElementFilter.constructorsIn(entity.getEnclosedElements()).stream()
+                    .noneMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)))
+                throw new UnsupportedEntityException("Default constructor not found in " + entity);
+        }
+
+        private void assertResultMapper() throws UnsupportedEntityException {
+            if (!resultMapper.getModifiers().contains(Modifier.STATIC) ||
+                    resultMapper.getModifiers().contains(Modifier.PRIVATE) ||
+                    resultMapper.getParameters().size() != 1 ||
+                    !resultMapper.getParameters().get(0).asType().toString().equals("java.sql.ResultSet") ||
+                    !processingEnv.getTypeUtils().isSameType(resultMapper.getReturnType(), entity.asType()))
+                throw new UnsupportedEntityException("Mapper method is not a static non-private method " +
+                        entityName + " " + resultMapper.getSimpleName() + "(ResultSet)");
+        }
+
+        private String sql(String statement) throws UnsupportedEntityException {
+            try {
+                return statement.contains("%") ? statement.formatted(tableName) : statement;
+            } catch (IllegalFormatException e) {
+                throw new UnsupportedEntityException("Bad SQL format: " + statement);
+            }
+        }
+
+        String generate() throws UnsupportedEntityException {
+            String createTable = stringValue(entity, CRUD_DDL, "createTableSql");
+            createTable = createTable.isEmpty() ? stringValue(entity, TABLE, "options") : createTable;
+            List<Property> updatable = properties.stream()
+                    .filter(p -> p != id)
+                    .toList();
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("package ").append(packageName).append(";\n\n");
+            sb.append("import com.jisj.tinyorm.Mapper;\n");
+            sb.append("import com.jisj.tinyorm.ParameterBinder;\n");
+            sb.append("import com.jisj.tinyorm.dao.EntityDescriptor;\n\n");
+            sb.append("import java.sql.ResultSet;\n");
+            sb.append("import java.sql.ResultSetMetaData;\n");
+            sb.append("import java.sql.SQLException;\n");
+            sb.append("import java.sql.Types;\n\n");
+            sb.append("/**\n * Generated descriptor of {@link ").append(entityName).append("}\n */\n");
+            sb.append("@javax.annotation.processing.Generated(\"").append(EntityProcessor.class.getName()).append("\")\n");
+            sb.append("public final class ").append(className)
+                    .append(" implements EntityDescriptor<").append(entityName).append("> {\n");
+            sb.append("    private static final Mapper<").append(entityName).append("> MAPPER = ")
+                    .append(mapper()).append(";\n\n");
+
+            method(sb, "Class<" + entityName + "> entityClass()", "return " + entityName + ".class;");
+            method(sb, "String tableName()", "return " + literal(tableName) + ";");
+            method(sb, "String idColumnName()", "return " + literal(idColumnName) + ";");
+            method(sb, "String idFieldName()", "return " + literal(id.name()) + ";");
+            method(sb, "String createTableSql()", "return " + literal(sql(createTable)) + ";");
+            method(sb, "String insertSql()", "return " + literal(sql(stringValue(entity, CRUD_DDL, "insertSql"))) + ";");
+            method(sb, "String updateSql()", "return " + literal(sql(stringValue(entity, CRUD_DDL, "updateSql"))) + ";");
+            method(sb, "Mapper<" + entityName + "> mapper()", "return MAPPER;");
+            method(sb, "ParameterBinder<" + entityName + "> insertBinder()", "return " + binder(properties) + ";");
+            List<Property> updateProperties = new ArrayList<>(updatable);
+            updateProperties.add(id);
+            method(sb, "ParameterBinder<" + entityName + "> updateBinder()", "return " + binder(updateProperties) + ";");
+            method(sb, "Object idValue(" + entityName + " entity)", "return entity." + id.getter() + "();");
+            sb.append("}\n");
+            return sb.toString();
+        }
+
+        private void method(StringBuilder sb, String signature, String body) {
+            sb.append("    @Override\n    public ").append(signature).append(" {\n        ")
+                    .append(body).append("\n    }\n\n");
+        }
+
+        private String mapper() {
+            if (resultMapper != null)
+                return entityName + "::" + resultMapper.getSimpleName();
+            StringBuilder sb = new StringBuilder("new Mapper<>() {\n");
+            sb.append("        @Override\n        public ").append(entityName)
+                    .append(" apply(ResultSet rs) throws SQLException {\n");
+            List<String> byName = properties.stream()
+                    .map(p -> "rs." + p.columnType().getter() + "(" + literal(p.columnName()) + ")")
+                    .toList();
+            mapBody(sb, byName, "            ");
+            sb.append("        }\n\n");
+            sb.append("        @Override\n        public Mapper<").append(entityName)
+                    .append("> bind(ResultSet rs) throws SQLException {\n");
+            // the same lookup as EntityMapper: the first column with the label ignoring case, otherwise by name
+            sb.append("            final ResultSetMetaData metaData = rs.getMetaData();\n");
+            for (int i = 0; i < properties.size(); i++)
+                sb.append("            int c").append(i).append(" = 0;\n");
+            sb.append("            for (int i = metaData.getColumnCount(); i > 0; i--) {\n");
+            sb.append("                final String label = metaData.getColumnLabel(i);\n");
+            for (int i = 0; i < properties.size(); i++)
+                sb.append("                if (").append(literal(properties.get(i).columnName()))
+                        .append(".equalsIgnoreCase(label)) c").append(i).append(" = i;\n");
+            sb.append("            }\n");
+            List<String> byIndex = new ArrayList<>();
+            for (int i = 0; i < properties.size(); i++) {
+                sb.append("            final int i").append(i).append(" = c").append(i).append(";\n");
+                String getter = properties.get(i).columnType().getter();
+                byIndex.add("(i%d > 0 ? row.%s(i%d) : row.%s(%s))"
+                        .formatted(i, getter, i, getter, literal(properties.get(i).columnName())));
+            }
+            sb.append("            return row -> {\n");
+            mapBody(sb, byIndex, "                ");
+            sb.append("            };\n");
+            sb.append("        }\n    }");
+            return sb.toString();
+        }
+
+        private void mapBody(StringBuilder sb, List<String> reads, String indent) {
+            if (isRecord) {
+                sb.append(indent).append("return new ").append(entityName).append("(");
+                for (int i = 0; i < properties.size(); i++)
+                    sb.append(i == 0 ? "\n" : ",\n").append(indent).append("        ").append(reads.get(i));
+                sb.append(");\n");
+                return;
+            }
+            sb.append(indent).append(entityName).append(" entity = new ").append(entityName).append("();\n");
+            for (int i = 0; i < properties.size(); i++)
+                sb.append(indent).append("entity.").append(properties.get(i).setter()).append('(')
+                        .append(reads.get(i)).append(");\n");
+            sb.append(indent).append("return entity;\n");
+        }
+
+        private String binder(List<Property> bound) {
+            StringBuilder sb = new StringBuilder("(st, position, entity) -> {\n");
+            for (Property p : bound) {
+                ColumnType type = p.columnType();
+                String value = "entity." + p.getter() + "()";
+                if (type == null)
+                    sb.append("            com.jisj.tinyorm.utils.Jdbc.setParameter(st, position++, ").append(value).append(");\n");
+                else if (p.type().getKind().isPrimitive())
+                    sb.append("            st.").append(type.setter()).append("(position++, ").append(value).append(");\n");
+                else
+                    sb.append("            {\n")
+                            .append("                ").append(p.typeName()).append(" v = ").append(value).append(";\n")
+                            .append("                if (v == null) st.setNull(position++, Types.").append(type.sqlType()).append(");\n")
+                            .append("                else st.").append(type.setter()).append("(position++, v);\n")
+                            .append("            }\n");
+            }
+            sb.append("            return position;\n        }");
+            return sb.toString();
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.jisj.tinyorm.utils;
 
 import com.jisj.tinyorm.Mapper;
+import com.jisj.tinyorm.Transaction;
+import com.jisj.tinyorm.dao.UnitOfWork;
+
+import javax.sql.DataSource;
 
 import java.sql.*;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -13,8 +20,31 @@ import java.util.stream.StreamSupport;
  * Static methods for JDBC
  */
 public class Jdbc {
+    /**
+     * Maximum count of SQL strings with the cached parameters count, the full cache is cleared.
+     * The reads of the cache are not locked, so the order of the usage is not tracked
+     */
+    static final int PARAMETER_COUNT_CACHE_SIZE = 1024;
+    static final Map<String, Integer> PARAMETER_COUNTS = new ConcurrentHashMap<>();
+
     private Jdbc(){}
 
+    /**
+     * Gives the connection of the current {@link Transaction} of the DataSource or the new DataSource connection.
+     * The writes queued by the current {@link UnitOfWork} of the DataSource are flushed before
+     *
+     * @param dataSource DataSource
+     * @return connection, should be closed after usage
+     * @throws SQLException if a database access error occurs
+     */
+    public static Connection getConnection(DataSource dataSource) throws SQLException {
+        Optional<UnitOfWork> uow = UnitOfWork.current(dataSource);
+        if (uow.isPresent())
+            uow.get().flush();
+        Optional<Transaction> tx = Transaction.current(dataSource);
+        return tx.isPresent() ? tx.get().getConnection() : dataSource.getConnection();
+    }
+
     /**
      * Sets specified parameters to {@code PreparedStatement} instance
      *
@@ -23,53 +53,205 @@ public class Jdbc {
      * @throws SQLException if parameterIndex does not correspond to a parameter marker in the SQL statement; if a database access error occurs or this method is called on a closed {@code PreparedStatement}
      */
     public static void setParameters(PreparedStatement st, Object... params) throws SQLException {
-        if (st.getParameterMetaData().getParameterCount() != params.length)
-            throw new IllegalStateException("Unexpected parameters count: %d - expected %d"
-                    .formatted(params.length, st.getParameterMetaData().getParameterCount()));
+        assertParameterCount(st, params.length);
         int pos = 1;
 
-        for (Object p : params) {
-            switch (p) {
-                case null -> st.setNull(pos, Types.NULL);
-                case Long longP -> st.setLong(pos, longP);
-                case Boolean boolP -> st.setBoolean(pos, boolP);
-                case Date dateP -> st.setDate(pos, dateP);
-                case Integer intP -> st.setInt(pos, intP);
-                case Timestamp timeP -> st.setTimestamp(pos, timeP);
-                case Float floatP -> st.setFloat(pos, floatP);
-                case byte[] bytesP -> st.setBytes(pos, bytesP);
-                case Array array -> st.setArray(pos, array);
-                default -> st.setObject(pos, p);
-            }
-            pos++;
+        for (Object p : params)
+            setParameter(st, pos++, p);
+    }
+
+    /**
+     * Sets specified parameters to {@code PreparedStatement} instance.
+     * <p>The parameters count of the SQL statement is requested from the statement metadata once per SQL string</p>
+     *
+     * @param sql    SQL string of the prepared statement
+     * @param st     PreparedStatement instance
+     * @param params query parameters
+     * @throws SQLException if parameterIndex does not correspond to a parameter marker in the SQL statement; if a database access error occurs or this method is called on a closed {@code PreparedStatement}
+     */
+    public static void setParameters(String sql, PreparedStatement st, Object... params) throws SQLException {
+        assertParameterCount(sql, st, params.length);
+        int pos = 1;
+
+        for (Object p : params)
+            setParameter(st, pos++, p);
+    }
+
+    /**
+     * Sets specified parameter to {@code PreparedStatement} instance by the parameter value type
+     *
+     * @param st  PreparedStatement instance
+     * @param pos parameter index
+     * @param p   parameter value
+     * @throws SQLException if parameterIndex does not correspond to a parameter marker in the SQL statement; if a database access error occurs or this method is called on a closed {@code PreparedStatement}
+     */
+    public static void setParameter(PreparedStatement st, int pos, Object p) throws SQLException {
+        switch (p) {
+            case null -> st.setNull(pos, Types.NULL);
+            case Long longP -> st.setLong(pos, longP);
+            case Boolean boolP -> st.setBoolean(pos, boolP);
+            case Date dateP -> st.setDate(pos, dateP);
+            case Integer intP -> st.setInt(pos, intP);
+            case Timestamp timeP -> st.setTimestamp(pos, timeP);
+            case Float floatP -> st.setFloat(pos, floatP);
+            case byte[] bytesP -> st.setBytes(pos, bytesP);
+            case Array array -> st.setArray(pos, array);
+            default -> st.setObject(pos, p);
         }
     }
 
     /**
-     * Execs the query to immutable stream. After processing the stream {@code ResultSet, Statement, Connection} will be closed
+     * Checks the parameters count of the {@code PreparedStatement} instance
+     *
+     * @param st    PreparedStatement instance
+     * @param count expected parameters count
+     * @throws SQLException          if a database access error occurs
+     * @throws IllegalStateException if the statement has other parameters count
+     */
+    public static void assertParameterCount(PreparedStatement st, int count) throws SQLException {
+        assertParameterCount(count, st.getParameterMetaData().getParameterCount());
+    }
+
+    /**
+     * Checks the parameters count of the {@code PreparedStatement} instance.
+     * <p>The parameters count of the SQL statement is requested from the statement metadata once per SQL string</p>
+     *
+     * @param sql   SQL string of the prepared statement
+     * @param st    PreparedStatement instance
+     * @param count expected parameters count
+     * @throws SQLException          if a database access error occurs
+     * @throws IllegalStateException if the statement has other parameters count
+     */
+    public static void assertParameterCount(String sql, PreparedStatement st, int count) throws SQLException {
+        Integer expected = PARAMETER_COUNTS.get(sql);
+        if (expected == null) {
+            expected = st.getParameterMetaData().getParameterCount();
+            if (PARAMETER_COUNTS.size() >= PARAMETER_COUNT_CACHE_SIZE)
+                PARAMETER_COUNTS.clear();
+            PARAMETER_COUNTS.put(sql, expected);
+        }
+        assertParameterCount(count, expected);
+    }
+
+    private static void assertParameterCount(int count, int expected) {
+        if (expected != count)
+            throw new IllegalStateException("Unexpected parameters count: %d - expected %d".formatted(count, expected));
+    }
+
+    /**
+     * Execs the query to immutable stream. The {@code ResultSet, Statement, Connection} are closed
+     * after processing the whole stream, on the database exception, or by {@link Stream#close()}.
+     * <p>The stream that is not fully processed (e.g. by {@code findFirst()} or {@code limit()}) should be closed,
+     * use try-with-resources statement</p>
      * @param statement PreparedStatement with SQL query and filled parameters
      * @param mapper result mapper
      * @return specified result type
      * @param <T> result type
      * @throws SQLException if a database access error occurs or this method is called on a closed {@code PreparedStatement}
+     * @deprecated closes the connection given by {@link Statement#getConnection()}, which may be the physical
+     * connection behind the connection of the wrapping DataSource or the {@link Transaction} scope. Use
+     * {@link Jdbc#execToStream(Connection, PreparedStatement, Mapper)}
      */
+    @Deprecated
     public static <T> Stream<T> execToStream(PreparedStatement statement, Mapper<T> mapper) throws SQLException {
-            ResultSet rs = statement.executeQuery();
-            return StreamSupport.stream(new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.IMMUTABLE) {
-                @Override
-                public boolean tryAdvance(Consumer<? super T> action) {
+        return execToStream(statement.getConnection(), statement, mapper);
+    }
+
+    /**
+     * Execs the query to immutable stream. The {@code ResultSet, Statement} and the specified connection are closed
+     * after processing the whole stream, on the database exception, or by {@link Stream#close()}.
+     * <p>The stream that is not fully processed (e.g. by {@code findFirst()} or {@code limit()}) should be closed,
+     * use try-with-resources statement</p>
+     * @param connection connection of the statement, as it was given by the DataSource
+     * @param statement PreparedStatement with SQL query and filled parameters
+     * @param mapper result mapper
+     * @return specified result type
+     * @param <T> result type
+     * @throws SQLException if a database access error occurs or this method is called on a closed {@code PreparedStatement}
+     */
+    public static <T> Stream<T> execToStream(Connection connection, PreparedStatement statement, Mapper<T> mapper) throws SQLException {
+        final ResultSet rs;
+        final Mapper<T> rowMapper;
+        try {
+            rs = statement.executeQuery();
+            rowMapper = mapper.bind(rs);
+        } catch (SQLException | RuntimeException e) {
+            SQLException closeError = close(null, statement, connection);
+            if (closeError != null)
+                e.addSuppressed(closeError);
+            throw e;
+        }
+        Runnable onClose = new Runnable() {
+            private boolean closed;
+
+            @Override
+            public void run() {
+                if (closed)
+                    return;
+                closed = true;
+                SQLException closeError = close(rs, statement, connection);
+                if (closeError != null)
+                    throw new RuntimeException(closeError);
+            }
+        };
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.IMMUTABLE | Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (rs.next()) {
+                        action.accept(rowMapper.apply(rs));
+                        return true;
+                    }
+                } catch (SQLException e) {
                     try {
-                        if (rs.next()) {
-                            action.accept(mapper.apply(rs));
-                            return true;
-                        }
-                        statement.getConnection().close();
-                        statement.close();
-                        return false;
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
+                        onClose.run();
+                    } catch (RuntimeException closeError) {
+                        e.addSuppressed(closeError.getCause());
                     }
+                    throw new RuntimeException(e);
                 }
-            }, false);
+                onClose.run();
+                return false;
+            }
+        }, false).onClose(onClose);
+    }
+
+    /**
+     * Closes the result set, the statement and the connection
+     *
+     * @param rs        result set or {@code null}
+     * @param statement statement or {@code null}
+     * @param con       connection or {@code null}
+     * @return the first exception with the others suppressed, or {@code null}
+     */
+    static SQLException close(ResultSet rs, Statement statement, Connection con) {
+        SQLException error = null;
+        try {
+            if (rs != null)
+                rs.close();
+        } catch (SQLException e) {
+            error = suppress(error, e);
+        }
+        try {
+            if (statement != null)
+                statement.close();
+        } catch (SQLException e) {
+            error = suppress(error, e);
+        }
+        try {
+            if (con != null)
+                con.close();
+        } catch (SQLException e) {
+            error = suppress(error, e);
+        }
+        return error;
+    }
+
+    private static SQLException suppress(SQLException error, SQLException e) {
+        if (error == null)
+            return e;
+        error.addSuppressed(e);
+        return error;
     }
 }
@@ -0,0 +1,174 @@
+package com.jisj.tinyorm.utils;
+
+import com.jisj.tinyorm.Mapper;
+import com.jisj.tinyorm.function.ThrowingFunction;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of the query rows with the backpressure
+ * <p>Every subscription executes the query on its own connection of the DataSource. The rows are read
+ * from the {@code ResultSet} only on the demand of {@link Flow.Subscription#request(long)},
+ * the statement fetch size defines the count of the rows fetched in one round trip.
+ * {@link Flow.Subscription#cancel()} cancels the executing statement. The connection is closed
+ * on the completion, on the error or after the cancel.</p>
+ * <p>The rows are read and emitted on the executor, by default on the virtual threads, out of the transaction
+ * of the subscriber thread</p>
+ *
+ * @param <T> row type
+ */
+public class ResultPublisher<T> implements Flow.Publisher<T> {
+    private static final Executor DEFAULT_EXECUTOR = Thread::startVirtualThread;
+    private final DataSource dataSource;
+    private final ThrowingFunction<Connection, PreparedStatement, SQLException> statement;
+    private final Mapper<T> mapper;
+    private final Executor executor;
+
+    /**
+     * Creates the publisher emitting the rows on the virtual threads
+     *
+     * @param dataSource DataSource
+     * @param statement  creates the statement with filled parameters by the connection
+     * @param mapper     result mapper
+     */
+    public ResultPublisher(DataSource dataSource,
+                           ThrowingFunction<Connection, PreparedStatement, SQLException> statement,
+                           Mapper<T> mapper) {
+        this(dataSource, statement, mapper, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Creates the publisher
+     *
+     * @param dataSource DataSource
+     * @param statement  creates the statement with filled parameters by the connection
+     * @param mapper     result mapper
+     * @param executor   executor of the reading and the emitting of the rows
+     */
+    public ResultPublisher(DataSource dataSource,
+                           ThrowingFunction<Connection, PreparedStatement, SQLException> statement,
+                           Mapper<T> mapper,
+                           Executor executor) {
+        this.dataSource = dataSource;
+        this.statement = statement;
+        this.mapper = mapper;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        ResultSubscription subscription = new ResultSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private final class ResultSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile PreparedStatement st;
+        private volatile Throwable requestError;
+        private Connection con;
+        private ResultSet rs;
+        private Mapper<T> rowMapper;
+        private boolean done;
+
+        ResultSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Unexpected request: " + n);
+                cancelled = true;
+            } else
+                demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            PreparedStatement running = st;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException ignored) {
+                    // the statement is closed by the drain
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    pending.set(0);
+                    finish(e);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!done)
+                    emit();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            try {
+                while (!cancelled && demand.get() > 0) {
+                    if (rs == null)
+                        open();
+                    if (!rs.next()) {
+                        finish(null);
+                        return;
+                    }
+                    T row = rowMapper.apply(rs);
+                    demand.decrementAndGet();
+                    subscriber.onNext(row);
+                }
+                if (cancelled)
+                    finish(requestError);
+            } catch (SQLException | RuntimeException e) {
+                finish(cancelled && requestError == null ? null : e);
+            }
+        }
+
+        private void open() throws SQLException {
+            con = dataSource.getConnection();
+            st = statement.apply(con);
+            rs = st.executeQuery();
+            rowMapper = mapper.bind(rs);
+        }
+
+        private void finish(Throwable error) {
+            if (done)
+                return;
+            done = true;
+            SQLException closeError = Jdbc.close(rs, st, con);
+            if (error != null && closeError != null)
+                error.addSuppressed(closeError);
+            else if (error == null && !cancelled)
+                error = closeError;
+            if (error != null)
+                subscriber.onError(error);
+            else if (!cancelled)
+                subscriber.onComplete();
+        }
+    }
+}
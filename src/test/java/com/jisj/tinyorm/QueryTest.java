@@ -1,15 +1,28 @@
 package com.jisj.tinyorm;
 
+import com.jisj.tinyorm.cache.QueryCache;
 import com.jisj.tinyorm.dao.*;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,4 +67,149 @@ class QueryTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void toStream() {
+        Query<String> query = new Query<>(ds, rs -> rs.getString(2), "SELECT id, name FROM TestEntityGenerateKey")
+                .setFetchSize(2);
+        try (Stream<String> stream = query.toStream()) {
+            assertEquals(List.of("Record-1"), stream.limit(1).toList());
+        }
+        assertEquals(3, query.toStream().count());
+    }
+
+    @Test
+    void cache() throws SQLException {
+        QueryCache cache = new QueryCache(10);
+        BaseDAO<TestEntityGenerateKey, Integer> dao = new BaseDAO<>(ds, TestEntityGenerateKey.class);
+        dao.setQueryCache(cache);
+        Query<String> query = new Query<>(ds, rs -> rs.getString(1),
+                "SELECT name FROM TestEntityGenerateKey WHERE id=?", 2)
+                .setCache(cache, "TestEntityGenerateKey");
+        List<String> result = query.toList();
+        assertEquals(List.of("Record-2"), result);
+        assertSame(result, query.toList());
+        assertThrows(UnsupportedOperationException.class, () -> result.add("Record"));
+        assertSame(dao.find("id=?", 2), dao.find("id=?", 2));
+        Query<Integer> lengths = new Query<>(ds, rs -> rs.getString(1).length(),
+                "SELECT name FROM TestEntityGenerateKey WHERE id=?", 2)
+                .setCache(cache, "TestEntityGenerateKey");
+        assertEquals(List.of(8), lengths.toList());
+        assertSame(result, query.toList());
+
+        dao.update(TestEntityGenerateKey.builder().id(2).name("Cached-2").build());
+        assertEquals(List.of("Cached-2"), query.toList());
+        dao.update(TestEntityGenerateKey.builder().id(2).name("Record-2").build());
+        assertEquals("Record-2", dao.find("id=?", 2).get(0).getName());
+        assertEquals(List.of("Record-2"), query.toStream().toList());
+    }
+
+    @Test
+    void cacheCaseSensitive() throws SQLException {
+        QueryCache cache = new QueryCache(10);
+        BaseDAO<TestEntityAnnotatedPG, Long> dao = new BaseDAO<>(ds, TestEntityAnnotatedPG.class);
+        dao.setQueryCache(cache);
+        dao.dropTable();
+        dao.createTable("CREATE TABLE \"tblEntityAnnotatedPG\" (\"RecID\" INTEGER PRIMARY KEY, name VARCHAR(255))");
+        try (Connection con = ds.getConnection();
+             PreparedStatement st = con.prepareStatement("INSERT INTO \"tblEntityAnnotatedPG\" VALUES (1, 'Quoted')")) {
+            st.executeUpdate();
+        }
+        Query<String> query = new Query<>(ds, rs -> rs.getString(1), "SELECT name FROM tblEntityAnnotatedPG")
+                .setCache(cache, "tblEntityAnnotatedPG");
+        assertEquals(List.of("Quoted"), query.toList());
+
+        assertEquals(1, dao.delete(1L));
+        assertEquals(List.of(), query.toList());
+        dao.dropTable();
+    }
+
+    @Test
+    void coalescing() throws InterruptedException {
+        AtomicInteger rows = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Mapper<String> mapper = rs -> {
+            rows.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+            return rs.getString(1);
+        };
+        List<List<String>> results = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> results.add(new Query<>(ds, mapper,
+                    "SELECT name FROM TestEntityGenerateKey WHERE id=?", 1)
+                    .setCoalescing(true)
+                    .toList()));
+            threads.add(thread);
+            thread.start();
+            while (rows.get() == 0)
+                Thread.sleep(1);
+        }
+        for (Thread thread : threads)
+            while (thread.getState() != Thread.State.WAITING)
+                Thread.sleep(1);
+        release.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(1, rows.get());
+        assertEquals(8, results.size());
+        assertEquals(List.of("Record-1"), results.get(0));
+        for (List<String> result : results)
+            assertSame(results.get(0), result);
+    }
+
+    @Test
+    void toPublisher() throws InterruptedException {
+        Query<String> query = new Query<>(ds, rs -> rs.getString(1), "SELECT name FROM TestEntityGenerateKey ORDER BY id");
+        BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        CompletableFuture<Flow.Subscription> subscription = new CompletableFuture<>();
+        query.toPublisher().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.complete(s);
+            }
+
+            @Override
+            public void onNext(String item) {
+                signals.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                signals.add("complete");
+            }
+        });
+        subscription.join().request(1);
+        assertEquals("Record-1", signals.poll(5, TimeUnit.SECONDS));
+        assertNull(signals.poll(100, TimeUnit.MILLISECONDS));
+        subscription.join().request(10);
+        assertEquals("Record-2", signals.poll(5, TimeUnit.SECONDS));
+        assertEquals("Record-3", signals.poll(5, TimeUnit.SECONDS));
+        assertEquals("complete", signals.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void pages() {
+        Query<TestEntityGenerateKey> query = new Query<>(ds,
+                rs -> new TestEntityGenerateKey(rs.getInt("id"), rs.getString("name")),
+                "SELECT id, name FROM TestEntityGenerateKey WHERE name LIKE ?", "Record-%");
+        Page<TestEntityGenerateKey, Integer> first = query.page("id", TestEntityGenerateKey::getId, null, 2);
+        assertEquals(List.of("Record-1", "Record-2"), first.items().stream().map(TestEntityGenerateKey::getName).toList());
+        assertEquals(2, first.next());
+        Page<TestEntityGenerateKey, Integer> last = query.page("id", TestEntityGenerateKey::getId, first.next(), 2);
+        assertEquals(1, last.items().size());
+        assertFalse(last.hasNext());
+        assertEquals(List.of(2, 1), query.pages("id", TestEntityGenerateKey::getId, 2)
+                .map(page -> page.items().size()).toList());
+    }
+}
@@ -0,0 +1,101 @@
+package com.jisj.tinyorm;
+
+import com.jisj.tinyorm.dao.BaseDAO;
+import com.jisj.tinyorm.dao.DAO;
+import com.jisj.tinyorm.dao.TestEntityBatch;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionTest {
+    private static DataSource ds;
+    private static DAO<TestEntityBatch, Integer> dao;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        ds = getSqliteDataSource();
+        dao = new BaseDAO<>(ds, TestEntityBatch.class);
+        dao.dropTable();
+        dao.createTable();
+    }
+
+    private static TestEntityBatch entity(int id) {
+        return TestEntityBatch.builder().id(id).name("Tx-" + id).build();
+    }
+
+    @Test
+    void afterCompletion() {
+        List<String> actions = new ArrayList<>();
+        IllegalStateException error = assertThrowsExactly(IllegalStateException.class,
+                () -> Transaction.inTransaction(ds, tx -> {
+                    tx.afterCompletion(() -> {
+                        throw new IllegalStateException("first");
+                    });
+                    tx.afterCompletion(() -> actions.add("second"));
+                    tx.afterCompletion(() -> {
+                        throw new IllegalArgumentException("third");
+                    });
+                    return null;
+                }));
+        assertEquals("first", error.getMessage());
+        assertEquals(1, error.getSuppressed().length);
+        assertEquals(List.of("second"), actions);
+
+        SQLException failure = assertThrowsExactly(SQLException.class, () -> Transaction.inTransaction(ds, tx -> {
+            tx.afterCompletion(() -> {
+                throw new IllegalStateException("action");
+            });
+            tx.afterCompletion(() -> actions.add("after failure"));
+            throw new SQLException("work");
+        }));
+        assertEquals("work", failure.getMessage());
+        assertInstanceOf(IllegalStateException.class, failure.getSuppressed()[0]);
+        assertEquals(List.of("second", "after failure"), actions);
+    }
+
+    @Test
+    void commit() throws SQLException {
+        int count = Transaction.inTransaction(ds, tx -> {
+            dao.insert(entity(1));
+            dao.insert(entity(2));
+            assertTrue(dao.getById(1).isPresent());
+            Transaction.inTransaction(ds, inner -> {
+                assertSame(tx, inner);
+                return dao.insert(entity(3));
+            });
+            return new Query<>(ds, rs -> rs.getInt(1), "SELECT id FROM TestEntityBatch WHERE id < ?", 4).toList().size();
+        });
+        assertEquals(3, count);
+        assertTrue(dao.getById(3).isPresent());
+        assertTrue(Transaction.current(ds).isEmpty());
+    }
+
+    @Test
+    void rollback() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> Transaction.inTransaction(ds, tx -> {
+            dao.insert(entity(10));
+            throw new IllegalStateException("Rollback");
+        }));
+        assertFalse(dao.getById(10).isPresent());
+
+        Transaction.inTransaction(ds, tx -> {
+            dao.insert(entity(11));
+            tx.setRollbackOnly();
+            return null;
+        });
+        assertFalse(dao.getById(11).isPresent());
+
+        assertThrows(SQLException.class, () -> Transaction.inTransaction(ds, tx -> {
+            tx.getConnection().commit();
+            return null;
+        }));
+        assertTrue(Transaction.current(ds).isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+package com.jisj.tinyorm.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>(3);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        assertEquals("one", cache.get(1));
+        cache.put(4, "four");
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals(3, cache.size());
+        assertEquals(new LruCache.Stats(2, 1, 1, 0), cache.stats());
+        assertEquals(2.0 / 3, cache.stats().hitRate());
+    }
+
+    @Test
+    void expires() throws InterruptedException {
+        LruCache<Integer, String> cache = new LruCache<>(10, Duration.ofMillis(20));
+        cache.put(1, "one");
+        assertEquals("one", cache.get(1));
+        Thread.sleep(40);
+        assertNull(cache.get(1));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidate() {
+        LruCache<Integer, String> cache = new LruCache<>(1000);
+        for (int i = 0; i < 100; i++)
+            cache.put(i, "value-" + i);
+        assertEquals(100, cache.size());
+        cache.invalidate(5);
+        assertNull(cache.get(5));
+        cache.invalidateIf(value -> value.endsWith("0"));
+        assertEquals(89, cache.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void arguments() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> new LruCache<>(0));
+        assertThrowsExactly(IllegalArgumentException.class, () -> new LruCache<>(10, Duration.ZERO));
+    }
+}
@@ -0,0 +1,72 @@
+package com.jisj.tinyorm.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCacheTest {
+    private static final Object OWNER = new Object();
+
+    @Test
+    void get() {
+        QueryCache cache = new QueryCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        Object[] args = {1, "a"};
+        List<Integer> result = cache.get(OWNER, "SELECT 1", args, Set.of("t1"), () -> List.of(loads.incrementAndGet()));
+        args[0] = 2;
+        assertSame(result, cache.get(OWNER, "SELECT 1", new Object[]{1, "a"}, Set.of("t1"), () -> List.of(loads.incrementAndGet())));
+        assertEquals(List.of(2), cache.get(OWNER, "SELECT 1", args, Set.of("t1"), () -> List.of(loads.incrementAndGet())));
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.size());
+        assertEquals(new LruCache.Stats(1, 2, 0, 0), cache.stats());
+
+        List<Integer> mutable = new ArrayList<>(List.of(1));
+        List<Integer> copy = cache.get(OWNER, "SELECT 2", null, Set.of(), () -> mutable);
+        mutable.add(2);
+        assertEquals(List.of(1), copy);
+        assertThrows(UnsupportedOperationException.class, () -> copy.add(3));
+    }
+
+    @Test
+    void invalidateTable() {
+        QueryCache cache = new QueryCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(OWNER, "SELECT t1", null, Set.of("T1"), () -> List.of(loads.incrementAndGet()));
+        cache.get(OWNER, "SELECT t2", null, Set.of("t2"), () -> List.of(loads.incrementAndGet()));
+        cache.get(OWNER, "SELECT all", null, Set.of(), () -> List.of(loads.incrementAndGet()));
+
+        cache.invalidateTable("t1");
+        assertEquals(List.of(4), cache.get(OWNER, "SELECT t1", null, Set.of("t1"), () -> List.of(loads.incrementAndGet())));
+        assertEquals(List.of(2), cache.get(OWNER, "SELECT t2", null, Set.of("t2"), () -> List.of(loads.incrementAndGet())));
+        assertEquals(List.of(5), cache.get(OWNER, "SELECT all", null, Set.of(), () -> List.of(loads.incrementAndGet())));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void quotedTable() {
+        QueryCache cache = new QueryCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(OWNER, "SELECT orders", null, Set.of("Orders"), () -> List.of(loads.incrementAndGet()));
+        cache.invalidateTable("\"Orders\"");
+        assertEquals(List.of(2), cache.get(OWNER, "SELECT orders", null, Set.of("Orders"), () -> List.of(loads.incrementAndGet())));
+        cache.invalidateTable("`orders`");
+        assertEquals(List.of(3), cache.get(OWNER, "SELECT orders", null, Set.of("[Orders]"), () -> List.of(loads.incrementAndGet())));
+    }
+
+    @Test
+    void owner() {
+        QueryCache cache = new QueryCache(10);
+        List<Integer> first = cache.get(OWNER, "SELECT 1", null, Set.of("t1"), () -> List.of(1));
+        List<String> other = cache.get(new Object(), "SELECT 1", null, Set.of("t1"), () -> List.of("1"));
+        assertEquals(List.of("1"), other);
+        assertSame(first, cache.get(OWNER, "SELECT 1", null, Set.of("t1"), () -> List.of(2)));
+        assertEquals(2, cache.size());
+    }
+}
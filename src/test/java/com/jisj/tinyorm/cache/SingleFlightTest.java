@@ -0,0 +1,55 @@
+package com.jisj.tinyorm.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void execute() throws Exception {
+        SingleFlight<Integer, List<String>> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flight.execute(1, () -> {
+                started.countDown();
+                release.await();
+                return List.of("one");
+            })));
+            started.await();
+            for (int i = 0; i < 7; i++)
+                results.add(executor.submit(() -> flight.execute(1, () -> List.of("other"))));
+            while (flight.getSharedCount() < 7)
+                Thread.sleep(1);
+            assertEquals(1, flight.getInFlightCount());
+            release.countDown();
+            for (Future<List<String>> result : results)
+                assertSame(results.get(0).get(), result.get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, flight.getExecutionCount());
+        assertEquals(0, flight.getInFlightCount());
+        assertEquals(List.of("next"), flight.execute(1, () -> List.of("next")));
+    }
+
+    @Test
+    void exception() {
+        SingleFlight<Integer, String> flight = new SingleFlight<>();
+        assertThrowsExactly(SQLException.class, () -> flight.execute(1, () -> {
+            throw new SQLException("Failed");
+        }));
+        assertEquals(0, flight.getInFlightCount());
+        assertThrowsExactly(IllegalStateException.class, () -> flight.execute(1, () -> {
+            throw new IllegalStateException();
+        }));
+    }
+}
@@ -0,0 +1,41 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.Mapper;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessorsTest {
+
+    @Test
+    void getterAndSetter() throws NoSuchMethodException {
+        TestEntityDefault e = new TestEntityDefault();
+        Accessors.setter(TestEntityDefault.class.getDeclaredMethod("setRecId", Long.class)).accept(e, 10L);
+        assertEquals(10L, e.getRecId());
+        assertEquals(10L, Accessors.getter(TestEntityDefault.class.getDeclaredMethod("getRecId")).apply(e));
+    }
+
+    @Test
+    void primitives() throws NoSuchMethodException {
+        TestEntityMapper e = new TestEntityMapper();
+        Accessors.setter(TestEntityMapper.class.getDeclaredMethod("setLongF", long.class)).accept(e, 5L);
+        assertEquals(5L, Accessors.getter(TestEntityMapper.class.getDeclaredMethod("getLongF")).apply(e));
+        Accessors.setter(TestEntityMapper.class.getDeclaredMethod("setBoolF", boolean.class)).accept(e, false);
+        assertEquals(false, Accessors.getter(TestEntityMapper.class.getDeclaredMethod("isBoolF")).apply(e));
+    }
+
+    @Test
+    void constructor() throws NoSuchMethodException {
+        assertInstanceOf(SimpleJoinEntity.class,
+                Accessors.constructor(SimpleJoinEntity.class.getDeclaredConstructor()).get());
+    }
+
+    @Test
+    void mapper() throws Exception {
+        Mapper<TestEntityMapperAnnotation.CorrectMapper> mapper =
+                Accessors.mapper(TestEntityMapperAnnotation.CorrectMapper.class.getDeclaredMethod("map", ResultSet.class));
+        assertNull(mapper.apply(null));
+    }
+}
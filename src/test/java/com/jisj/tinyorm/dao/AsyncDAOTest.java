@@ -0,0 +1,83 @@
+package com.jisj.tinyorm.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncDAOTest {
+    @Mock
+    DAO<String, Long> dao;
+
+    @Test
+    void calls() throws SQLException {
+        when(dao.getById(1L)).thenReturn(Optional.of("one"));
+        when(dao.delete(2L)).thenThrow(new SQLException("Failed"));
+        AsyncDAO<String, Long> async = new AsyncDAO<>(dao, 4);
+        assertEquals(Optional.of("one"), async.getById(1L).join());
+        assertInstanceOf(SQLException.class,
+                assertThrowsExactly(CompletionException.class, () -> async.delete(2L).join()).getCause());
+        assertThrowsExactly(IllegalArgumentException.class, () -> new AsyncDAO<>(dao, 0));
+    }
+
+    @Test
+    void maxConcurrency() throws InterruptedException {
+        AsyncDAO<String, Long> async = new AsyncDAO<>(dao, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            results.add(async.supply(() -> {
+                release.await();
+                return n;
+            }));
+        }
+        while (async.getWaitingCount() < 3 || async.getActiveCount() < 2)
+            Thread.sleep(1);
+        assertEquals(2, async.getActiveCount());
+        release.countDown();
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(CompletableFuture::join).toList());
+        assertEquals(0, async.getActiveCount());
+    }
+
+    @Test
+    void sharedPermits() throws InterruptedException {
+        Semaphore connections = new Semaphore(2, true);
+        AsyncDAO<String, Long> orders = new AsyncDAO<>(dao, connections, 2);
+        AsyncDAO<String, Long> customers = new AsyncDAO<>(dao, connections, 2);
+        assertEquals(2, customers.getMaxConcurrency());
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int n = i;
+            results.add((i % 2 == 0 ? orders : customers).supply(() -> {
+                release.await();
+                return n;
+            }));
+        }
+        while (connections.getQueueLength() < 2 || orders.getActiveCount() + customers.getActiveCount() < 2)
+            Thread.sleep(1);
+        assertEquals(0, connections.availablePermits());
+        assertEquals(2, orders.getActiveCount() + customers.getActiveCount());
+        release.countDown();
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(CompletableFuture::join).toList());
+        assertEquals(2, connections.availablePermits());
+        connections.acquire(2);
+        assertEquals(2, new AsyncDAO<>(dao, connections, 2).getMaxConcurrency());
+        connections.release(2);
+        assertThrowsExactly(IllegalArgumentException.class, () -> new AsyncDAO<>(dao, connections, 0));
+    }
+}
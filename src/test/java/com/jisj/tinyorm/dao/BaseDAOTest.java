@@ -1,13 +1,33 @@
 package com.jisj.tinyorm.dao;
 
+import com.jisj.tinyorm.Mapper;
+import com.jisj.tinyorm.Page;
+import com.jisj.tinyorm.Transaction;
+import com.jisj.tinyorm.cache.LruCache;
+import com.jisj.tinyorm.cache.QueryCache;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import javax.sql.DataSource;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static com.jisj.tinyorm.dao.TestsEnv.getH2DataSource;
 import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +37,8 @@ class BaseDAOTest {
     private static DAO<TestEntityAnnotated, Long> daoAnn;
     private static DAO<TestEntityDefault, Long> daoDef;
     private static DAO<TestEntityGenerateKey, Integer> daoKey;
+    private static DAO<TestEntityRecord, Long> daoRec;
+    private static BaseDAO<TestEntityBatch, Integer> daoBatch;
 
     @BeforeAll
     static void setUp() throws SQLException {
@@ -34,6 +56,13 @@ class BaseDAOTest {
         daoKey = new BaseDAO<>(ds, TestEntityGenerateKey.class);
         daoKey.dropTable();
         daoKey.createTable();
+        daoRec = new BaseDAO<>(ds, TestEntityRecord.class);
+        daoRec.dropTable();
+        daoRec.createTable();
+        daoBatch = new BaseDAO<>(ds, TestEntityBatch.class);
+        daoBatch.dropTable();
+        daoBatch.createTable();
+        daoBatch.setBatchSize(3);
     }
 
     private static void addRecordsIntoAnnotated() throws SQLException {
@@ -91,6 +120,17 @@ class BaseDAOTest {
         assertThrowsExactly(IllegalStateException.class, ()-> daoDef.update(e));
     }
 
+    @Test
+    void recordEntity() throws SQLException {
+        TestEntityRecord e = new TestEntityRecord(1L, "Record-1", 1.5);
+        assertEquals(1, daoRec.insert(e));
+        assertEquals(e, daoRec.getById(1L).orElseThrow());
+        TestEntityRecord updated = new TestEntityRecord(1L, "Record-1-updated", 2.5);
+        assertEquals(1, daoRec.update(updated));
+        assertEquals(updated, daoRec.getById(1L).orElseThrow());
+        assertEquals(List.of(updated), daoRec.find("recId=?", 1L));
+    }
+
     @Test
     void delete() throws SQLException {
         TestEntityDefault e = TestEntityDefault.builder()
@@ -105,6 +145,191 @@ class BaseDAOTest {
 
     }
 
+    @Test
+    void batches() throws SQLException {
+        List<TestEntityBatch> entities = new ArrayList<>();
+        for (int i = 1; i <= 10; i++)
+            entities.add(TestEntityBatch.builder().id(i).name("Batch-" + i).build());
+        assertEquals(10, daoBatch.insertAll(entities));
+        assertEquals(entities, daoBatch.getAll().toList());
+
+        entities.forEach(e -> e.setName(e.getName() + "-updated"));
+        assertEquals(10, daoBatch.updateAll(entities));
+        assertEquals(entities, daoBatch.getAll().toList());
+
+        List<Integer> ids = daoBatch.createAll(List.of(
+                TestEntityBatch.builder().name("Created-1").build(),
+                TestEntityBatch.builder().name("Created-2").build()));
+        assertEquals(List.of(11, 12), ids);
+        assertEquals("Created-2", daoBatch.getById(12).orElseThrow().getName());
+
+        assertEquals(7, daoBatch.deleteAll(List.of(1, 2, 3, 4, 5, 6, 100, 12)));
+        assertEquals(List.of(7, 8, 9, 10, 11), daoBatch.getAll().map(TestEntityBatch::getId).toList());
+
+        assertEquals(0, daoBatch.insertAll(List.of()));
+        assertThrowsExactly(IllegalStateException.class,
+                () -> daoBatch.updateAll(List.of(TestEntityBatch.builder().name("No ID").build())));
+        assertThrowsExactly(IllegalArgumentException.class, () -> daoBatch.setBatchSize(0));
+    }
+
+    @Test
+    void load() throws SQLException {
+        List<Object> rejects = new CopyOnWriteArrayList<>();
+        Stream<TestEntityBatch> entities = Stream.concat(
+                IntStream.rangeClosed(1001, 1500).mapToObj(i -> TestEntityBatch.builder().id(i).name("Load-" + i).build()),
+                Stream.of(TestEntityBatch.builder().id(1001).name("Duplicate").build()));
+        LoadResult result = daoBatch.load(entities, LoadOptions.defaults()
+                .withChunkSize(50)
+                .withWriters(2)
+                .withRejects((entity, e) -> rejects.add(entity)));
+        assertEquals(500, result.loaded());
+        assertEquals(1, result.rejected());
+        assertEquals(1, rejects.size());
+        assertEquals(500, daoBatch.find("id > ?", 1000).size());
+        assertEquals(500, daoBatch.deleteAll(IntStream.rangeClosed(1001, 1500).boxed().toList()));
+        assertThrowsExactly(IllegalArgumentException.class, () -> LoadOptions.defaults().withWriters(0));
+        BaseDAO<TestEntityAnnotatedPG, Long> noInsert = new BaseDAO<>(ds, TestEntityAnnotatedPG.class);
+        assertTrue(assertThrowsExactly(IllegalStateException.class,
+                () -> noInsert.load(Stream.of(TestEntityAnnotatedPG.builder().id(1).build()), LoadOptions.defaults()))
+                .getMessage().contains("Insert SQL query not found"));
+    }
+
+    @Test
+    void createAllFailure() throws SQLException {
+        BaseDAO<TestEntityBatch, Integer> dao = new BaseDAO<>(ds, TestEntityBatch.class);
+        dao.setQueryCache(new QueryCache(10));
+        dao.setBatchSize(1);
+        assertTrue(dao.find("id > ?", 4000).isEmpty());
+        assertThrows(SQLException.class, () -> dao.createAll(List.of(
+                TestEntityBatch.builder().id(4001).name("Create-4001").build(),
+                TestEntityBatch.builder().id(4001).name("Duplicate").build())));
+        assertEquals(1, dao.find("id > ?", 4000).size());
+        assertEquals(1, dao.delete(4001));
+    }
+
+    @Test
+    void loadFailure() throws SQLException {
+        DataSource failing = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    Object result = call(ds, method, args);
+                    if (!(result instanceof Connection con))
+                        return result;
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                            (conProxy, conMethod, conArgs) -> {
+                                Object st = call(con, conMethod, conArgs);
+                                if (!(st instanceof PreparedStatement))
+                                    return st;
+                                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                        new Class<?>[]{PreparedStatement.class}, (stProxy, stMethod, stArgs) -> {
+                                            if (stMethod.getName().startsWith("execute"))
+                                                throw new SQLException("Connection reset", "08S01");
+                                            return call(st, stMethod, stArgs);
+                                        });
+                            });
+                });
+        BaseDAO<TestEntityBatch, Integer> dao = new BaseDAO<>(failing, TestEntityBatch.class);
+        List<Object> rejects = new CopyOnWriteArrayList<>();
+        SQLException e = assertThrowsExactly(SQLException.class, () -> dao.load(
+                IntStream.rangeClosed(2001, 2100).mapToObj(i -> TestEntityBatch.builder().id(i).name("Load-" + i).build()),
+                LoadOptions.defaults().withChunkSize(10).withRejects((entity, error) -> rejects.add(entity))));
+        assertEquals("08S01", e.getSQLState());
+        assertTrue(rejects.isEmpty());
+        assertTrue(daoBatch.find("id > ?", 2000).isEmpty());
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    void coalescing() throws Exception {
+        AtomicInteger connections = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        DataSource blocking = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        connections.incrementAndGet();
+                        release.await();
+                    }
+                    try {
+                        return method.invoke(ds, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        BaseDAO<TestEntityAnnotated, Long> dao = new BaseDAO<>(blocking, TestEntityAnnotated.class);
+        dao.setCoalescing(true);
+        assertTrue(dao.isCoalescing());
+
+        List<Optional<TestEntityAnnotated>> results = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> results.add(dao.getById(1L)));
+            threads.add(thread);
+            thread.start();
+            while (connections.get() == 0)
+                Thread.sleep(1);
+        }
+        for (Thread thread : threads)
+            while (thread.getState() != Thread.State.WAITING)
+                Thread.sleep(1);
+        release.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(1, connections.get());
+        assertEquals(8, results.size());
+        assertTrue(results.get(0).isPresent());
+        for (Optional<TestEntityAnnotated> result : results)
+            assertSame(results.get(0), result);
+        dao.getById(1L);
+        assertEquals(2, connections.get());
+    }
+
+    @Test
+    void multiRowInsert() throws SQLException {
+        BaseDAO<TestEntityBatch, Integer> dao = new BaseDAO<>(ds, TestEntityBatch.class);
+        dao.setMultiRowInsert(true);
+        dao.setBatchSize(100);
+        List<TestEntityBatch> entities = IntStream.rangeClosed(2001, 2300)
+                .mapToObj(i -> TestEntityBatch.builder().id(i).name("Values-" + i).build())
+                .toList();
+        assertEquals(300, dao.insertAll(entities));
+        assertEquals(entities, dao.find("id > ? ORDER BY id", 2000));
+        assertEquals(300, dao.deleteAll(IntStream.rangeClosed(2001, 2300).boxed().toList()));
+
+        dao.insertStatement = "INSERT INTO TestEntityBatch (id, name) VALUES (?, 'Changed-' || ?)";
+        assertEquals(2, dao.insertAll(List.of(
+                TestEntityBatch.builder().id(2001).name("1").build(),
+                TestEntityBatch.builder().id(2002).name("2").build())));
+        assertEquals(List.of("Changed-1", "Changed-2"), dao.find("id > ? ORDER BY id", 2000).stream()
+                .map(TestEntityBatch::getName)
+                .toList());
+        assertEquals(2, dao.deleteAll(List.of(2001, 2002)));
+    }
+
+    @Test
+    void upsert() throws SQLException {
+        BaseDAO<TestEntityBatch, Integer> dao = new BaseDAO<>(ds, TestEntityBatch.class);
+        assertEquals(1, dao.upsert(TestEntityBatch.builder().id(3001).name("Inserted").build()));
+        assertEquals(1, dao.upsert(TestEntityBatch.builder().id(3001).name("Updated").build()));
+        assertEquals("Updated", dao.getById(3001).orElseThrow().getName());
+
+        List<TestEntityBatch> entities = IntStream.rangeClosed(3001, 3005)
+                .mapToObj(i -> TestEntityBatch.builder().id(i).name("Upserted-" + i).build())
+                .toList();
+        assertEquals(5, dao.upsertAll(entities));
+        assertEquals(entities, dao.find("id > ? ORDER BY id", 3000));
+        assertEquals(0, dao.upsertAll(List.of()));
+        assertThrowsExactly(IllegalStateException.class,
+                () -> dao.upsert(TestEntityBatch.builder().name("No ID").build()));
+        assertEquals(5, dao.deleteAll(IntStream.rangeClosed(3001, 3005).boxed().toList()));
+    }
+
     @Test
     void getById() {
         assertFalse(daoAnn.getById(123L).isPresent());
@@ -113,6 +338,110 @@ class BaseDAOTest {
         assertEquals("Row-10", daoAnn.getById(10L).orElseThrow().getName());
     }
 
+    @Test
+    void getByIds() throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1L; i <= 25; i++)
+            ids.add(i);
+        Map<Long, TestEntityAnnotated> result = daoAnn.getByIds(ids);
+        assertEquals(20, result.size());
+        assertEquals("Row-17", result.get(17L).getName());
+        assertFalse(result.containsKey(21L));
+        assertEquals(Set.of(3L), daoAnn.getByIds(List.of(3L, 3L)).keySet());
+        assertTrue(daoAnn.getByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void cache() throws SQLException {
+        BaseDAO<TestEntityAnnotated, Long> dao = new BaseDAO<>(ds, TestEntityAnnotated.class);
+        LruCache<Long, TestEntityAnnotated> cache = new LruCache<>(100);
+        dao.setCache(cache);
+        TestEntityAnnotated entity = dao.getById(11L).orElseThrow();
+        assertSame(entity, dao.getById(11L).orElseThrow());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(Set.of(11L, 12L), dao.getByIds(List.of(11L, 12L)).keySet());
+        assertEquals(2, cache.size());
+
+        dao.update(TestEntityAnnotated.builder().id(11L).name("Cached-11").build());
+        assertEquals("Cached-11", dao.getById(11L).orElseThrow().getName());
+        Transaction.inTransaction(ds, tx -> {
+            dao.update(TestEntityAnnotated.builder().id(11L).name("Row-11").build());
+            return dao.getById(11L).orElseThrow().getName();
+        });
+        assertEquals("Row-11", dao.getById(11L).orElseThrow().getName());
+        dao.setCache(null);
+        assertNull(dao.getCache());
+    }
+
+    @Test
+    void cacheAfterCommit() throws Exception {
+        DataSource h2 = getH2DataSource();
+        BaseDAO<TestEntityBatch, Integer> dao = new BaseDAO<>(h2, TestEntityBatch.class);
+        dao.dropTable();
+        dao.createTable("CREATE TABLE TestEntityBatch (id INTEGER PRIMARY KEY, name VARCHAR(255))");
+        dao.insert(TestEntityBatch.builder().id(1).name("Committed").build());
+        dao.setCache(new LruCache<>(10));
+        Mapper<TestEntityBatch> mapper = dao.getMapper();
+        CountDownLatch mapped = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dao.setMapper(rs -> {
+            TestEntityBatch entity = mapper.bind(rs).apply(rs);
+            mapped.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+            return entity;
+        });
+
+        Thread reader = new Thread(() -> assertEquals("Committed", dao.getById(1).orElseThrow().getName()));
+        Transaction.inTransaction(h2, tx -> {
+            dao.update(TestEntityBatch.builder().id(1).name("Updated").build());
+            reader.start();
+            try {
+                mapped.await();
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+            return null;
+        });
+        release.countDown();
+        reader.join();
+        dao.setMapper(mapper);
+        assertEquals("Updated", dao.getById(1).orElseThrow().getName());
+        dao.dropTable();
+    }
+
+    @Test
+    void page() throws SQLException {
+        BaseDAO<TestEntityAnnotated, Long> dao = new BaseDAO<>(ds, TestEntityAnnotated.class);
+        Page<TestEntityAnnotated, Long> first = dao.page(null, 8);
+        assertEquals(8, first.items().size());
+        assertEquals(8L, first.next());
+        Page<TestEntityAnnotated, Long> last = dao.page(16L, 8);
+        assertEquals(List.of(17L, 18L, 19L, 20L), last.items().stream().map(TestEntityAnnotated::getId).toList());
+        assertFalse(last.hasNext());
+        assertEquals(List.of(8, 8, 4), dao.pages(8).map(page -> page.items().size()).toList());
+        assertEquals(1, dao.pages(20).count());
+        assertThrowsExactly(IllegalArgumentException.class, () -> dao.page(null, 0));
+    }
+
+    @Test
+    void scan() {
+        BaseDAO<TestEntityAnnotated, Long> dao = new BaseDAO<>(ds, TestEntityAnnotated.class);
+        try (Stream<TestEntityAnnotated> entities = dao.scan(4)) {
+            assertEquals(210, entities.mapToLong(TestEntityAnnotated::getId).sum());
+        }
+        try (Stream<TestEntityAnnotated> entities = dao.scan(3)) {
+            assertEquals(daoAnn.getAll().toList(), entities.toList());
+        }
+        try (Stream<TestEntityAnnotated> entities = dao.scan(4)) {
+            assertTrue(entities.anyMatch(entity -> entity.getId() > 10));
+        }
+        assertThrowsExactly(IllegalArgumentException.class, () -> dao.scan(0));
+    }
+
     @Test
     void getAll() {
         assertEquals(20, daoAnn.getAll().count());
@@ -0,0 +1,84 @@
+package com.jisj.tinyorm.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchLoaderTest {
+    @Mock
+    DAO<String, Long> dao;
+
+    @Test
+    void load() throws SQLException {
+        when(dao.getByIds(List.of(1L, 2L))).thenReturn(Map.of(1L, "one"));
+        BatchLoader<String, Long> loader = new BatchLoader<>(dao, Duration.ofMillis(200), 10);
+        CompletableFuture<Optional<String>> one = loader.load(1L);
+        CompletableFuture<Optional<String>> two = loader.load(2L);
+        assertSame(one, loader.load(1L));
+        assertEquals(Optional.of("one"), one.join());
+        assertEquals(Optional.empty(), two.join());
+        verify(dao).getByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void maxBatchSize() throws SQLException {
+        when(dao.getByIds(List.of(1L, 2L))).thenReturn(Map.of(1L, "one", 2L, "two"));
+        BatchLoader<String, Long> loader = new BatchLoader<>(dao, Duration.ofMinutes(1), 2);
+        CompletableFuture<Optional<String>> one = loader.load(1L);
+        assertEquals(Optional.of("two"), loader.getById(2L));
+        assertEquals(Optional.of("one"), one.join());
+    }
+
+    @Test
+    void exception() throws SQLException {
+        when(dao.getByIds(List.of(3L))).thenThrow(new SQLException("Failed"));
+        BatchLoader<String, Long> loader = new BatchLoader<>(dao, Duration.ZERO, 10);
+        assertInstanceOf(SQLException.class,
+                assertThrowsExactly(RuntimeException.class, () -> loader.getById(3L)).getCause());
+        assertThrowsExactly(IllegalArgumentException.class, () -> new BatchLoader<>(dao, Duration.ZERO, 0));
+    }
+
+    @Test
+    void boundedExecutor() throws Exception {
+        when(dao.getByIds(List.of(1L))).thenReturn(Map.of(1L, "one"));
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            BatchLoader<String, Long> loader = new BatchLoader<>(dao, Duration.ofMinutes(1), 1, executor);
+            assertEquals(Optional.of("one"), loader.load(1L).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void rejected() {
+        BatchLoader<String, Long> full = new BatchLoader<>(dao, Duration.ofMinutes(1), 1, command -> {
+            throw new RejectedExecutionException("Full");
+        });
+        assertInstanceOf(RejectedExecutionException.class,
+                assertThrowsExactly(ExecutionException.class, () -> full.load(1L).get(10, TimeUnit.SECONDS)).getCause());
+        BatchLoader<String, Long> expired = new BatchLoader<>(dao, Duration.ZERO, 10, command -> {
+            throw new RejectedExecutionException("Full");
+        });
+        assertInstanceOf(RejectedExecutionException.class,
+                assertThrowsExactly(ExecutionException.class, () -> expired.load(1L).get(10, TimeUnit.SECONDS)).getCause());
+    }
+}
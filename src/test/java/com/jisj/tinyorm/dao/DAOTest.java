@@ -0,0 +1,55 @@
+package com.jisj.tinyorm.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DAOTest {
+    @SuppressWarnings("unchecked")
+    private final DAO<TestEntityBatch, Integer> dao = mock(DAO.class, CALLS_REAL_METHODS);
+
+    private static TestEntityBatch entity(int id) {
+        return TestEntityBatch.builder().id(id).name("Default-" + id).build();
+    }
+
+    @Test
+    void batchDefaults() throws SQLException {
+        List<TestEntityBatch> entities = List.of(entity(1), entity(2));
+        when(dao.insert(any())).thenReturn(1);
+        when(dao.create(any())).thenReturn(1, 2);
+        when(dao.update(any())).thenReturn(1, 0);
+        when(dao.delete(any())).thenReturn(1);
+
+        assertEquals(2, dao.insertAll(entities));
+        assertEquals(List.of(1, 2), dao.createAll(entities));
+        assertEquals(1, dao.updateAll(entities));
+        assertEquals(2, dao.deleteAll(List.of(1, 2)));
+        assertEquals(0, dao.insertAll(List.of()));
+        verify(dao, times(2)).insert(any());
+        verify(dao, times(2)).delete(any());
+    }
+
+    @Test
+    void getByIdsDefault() throws SQLException {
+        when(dao.getById(1)).thenReturn(Optional.of(entity(1)));
+        when(dao.getById(2)).thenReturn(Optional.empty());
+
+        assertEquals(Map.of(1, entity(1)), dao.getByIds(List.of(1, 2)));
+    }
+
+    @Test
+    void upsertDefault() throws SQLException {
+        when(dao.update(any())).thenReturn(1, 0);
+        when(dao.insert(any())).thenReturn(1);
+
+        assertEquals(2, dao.upsertAll(List.of(entity(1), entity(2))));
+        verify(dao, times(2)).update(any());
+        verify(dao, times(1)).insert(any());
+    }
+}
@@ -0,0 +1,66 @@
+package com.jisj.tinyorm.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DialectTest {
+
+    @Test
+    void inListSize() {
+        assertEquals(1, Dialect.H2.inListSize(1));
+        assertEquals(4, Dialect.H2.inListSize(2));
+        assertEquals(16, Dialect.H2.inListSize(5));
+        assertEquals(1024, Dialect.H2.inListSize(1000));
+        assertEquals(1024, Dialect.H2.inListSize(5000));
+        assertEquals(256, Dialect.SQLITE.inListSize(1000));
+        assertEquals(256, Dialect.GENERIC.inListSize(300));
+    }
+
+    @Test
+    void limitClause() {
+        assertEquals("LIMIT ?", Dialect.SQLITE.limitClause());
+        assertEquals("FETCH FIRST ? ROWS ONLY", Dialect.GENERIC.limitClause());
+    }
+
+    @Test
+    void valuesRowCount() {
+        assertEquals(1, Dialect.H2.valuesRowCount(3, 2));
+        assertEquals(64, Dialect.H2.valuesRowCount(100, 2));
+        assertEquals(1024, Dialect.H2.valuesRowCount(5000, 2));
+        assertEquals(256, Dialect.SQLITE.valuesRowCount(1000, 2));
+        assertEquals(64, Dialect.SQLITE.valuesRowCount(1000, 10));
+        assertEquals(1, Dialect.SQLITE.valuesRowCount(1000, 1000));
+    }
+
+    @Test
+    void upsertSql() {
+        List<String> columns = List.of("id", "name");
+        assertEquals("MERGE INTO T (id, name) KEY(id) VALUES (?,?)", Dialect.H2.upsertSql("T", columns, "(?,?)", "id"));
+        assertEquals("INSERT INTO T (id, name) VALUES (?,'new') ON CONFLICT(id) DO UPDATE SET name=excluded.name",
+                Dialect.SQLITE.upsertSql("T", columns, "(?,'new')", "id"));
+        assertEquals("INSERT INTO T (id) VALUES (?) ON CONFLICT(id) DO NOTHING",
+                Dialect.POSTGRESQL.upsertSql("T", List.of("id"), "(?)", "id"));
+        assertThrowsExactly(UnsupportedOperationException.class,
+                () -> Dialect.GENERIC.upsertSql("T", columns, "(?,?)", "id"));
+    }
+
+    @Test
+    void isDataError() {
+        assertTrue(Dialect.GENERIC.isDataError(new SQLIntegrityConstraintViolationException("Duplicate")));
+        assertTrue(Dialect.H2.isDataError(new SQLException("Duplicate", "23505")));
+        assertTrue(Dialect.POSTGRESQL.isDataError(new SQLException("Too long", "22001")));
+        assertTrue(Dialect.SQLITE.isDataError(new SQLException("[SQLITE_CONSTRAINT_PRIMARYKEY]", null, 1555)));
+        assertTrue(Dialect.GENERIC.isDataError(new BatchUpdateException("Batch", new int[0],
+                new SQLException("Duplicate", "23505"))));
+        assertFalse(Dialect.SQLITE.isDataError(new SQLException("[SQLITE_BUSY]", null, 5)));
+        assertFalse(Dialect.H2.isDataError(new SQLException("Lock timeout", "HYT00")));
+        assertFalse(Dialect.POSTGRESQL.isDataError(new SQLException("Serialization failure", "40001")));
+        assertFalse(Dialect.GENERIC.isDataError(new SQLException("Connection reset", "08S01")));
+    }
+}
@@ -0,0 +1,74 @@
+package com.jisj.tinyorm.dao;
+
+import jakarta.persistence.Id;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EntityBinderTest {
+    @Mock
+    PreparedStatement st;
+
+    @Test
+    void insert() throws SQLException {
+        TestEntityMapper ex = new TestEntityMapper();
+        ex.setLongFL(null);
+        ex.setStringF(null);
+
+        assertEquals(15, EntityBinder.insert(EntityModel.of(TestEntityMapper.class)).bind(st, 1, ex));
+
+        verify(st).setLong(1, ex.getLongF());
+        verify(st).setNull(2, Types.BIGINT);
+        verify(st).setBoolean(3, ex.isBoolF());
+        verify(st).setBoolean(4, ex.getBoolFB());
+        verify(st).setDate(5, ex.getDateF());
+        verify(st).setTimestamp(6, ex.getTimestampF());
+        verify(st).setTime(7, ex.getTimeF());
+        verify(st).setInt(8, ex.getIntF());
+        verify(st).setInt(9, ex.getIntFI());
+        verify(st).setFloat(10, ex.getFloatF());
+        verify(st).setFloat(11, ex.getFloatFF());
+        verify(st).setDouble(12, ex.getDoubleF());
+        verify(st).setDouble(13, ex.getDoubleFD());
+        verify(st).setNull(14, Types.VARCHAR);
+    }
+
+    @Test
+    void update() throws SQLException {
+        TestEntityDefault ex = TestEntityDefault.builder().recId(10L).name("name").build();
+
+        assertEquals(3, EntityBinder.update(EntityModel.of(TestEntityDefault.class)).bind(st, 1, ex));
+
+        InOrder order = inOrder(st);
+        order.verify(st).setString(1, "name");
+        order.verify(st).setLong(2, 10L);
+    }
+
+    @Test
+    void noGetter() {
+        EntityBinder binder = EntityBinder.insert(EntityModel.of(NoGetter.class));
+        IllegalStateException e = assertThrowsExactly(IllegalStateException.class, () -> binder.bind(st, 1, new NoGetter()));
+        assertTrue(e.getMessage().contains("<name>"));
+    }
+
+    public static class NoGetter {
+        @Id
+        private Long id;
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,6 +17,8 @@ import static org.mockito.Mockito.when;
 class EntityMapperTest {
     @Mock
     ResultSet resultSet;
+    @Mock
+    ResultSetMetaData metaData;
 
     @Test
     void build() throws SQLException {
@@ -44,4 +47,34 @@ class EntityMapperTest {
         assertEquals(ex, ac);
     }
 
-}
\ No newline at end of file
+    @Test
+    void bind() throws SQLException {
+        TestEntityMapper ex = new TestEntityMapper();
+        Mapper<TestEntityMapper> fn = new EntityMapper<TestEntityMapper>(TestEntityMapper.class).build();
+
+        String[] labels = {"STRINGF", "doubleFD", "doubleF", "floatFF", "floatF", "intFI", "intF", "timeF",
+                "timestampF", "dateF", "boolFB", "boolF", "longFL", "longF"};
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++)
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+
+        when(resultSet.getString(1)).thenReturn(ex.getStringF());
+        when(resultSet.getDouble(2)).thenReturn(ex.getDoubleFD());
+        when(resultSet.getDouble(3)).thenReturn(ex.getDoubleF());
+        when(resultSet.getFloat(4)).thenReturn(ex.getFloatFF());
+        when(resultSet.getFloat(5)).thenReturn(ex.getFloatF());
+        when(resultSet.getInt(6)).thenReturn(ex.getIntFI());
+        when(resultSet.getInt(7)).thenReturn(ex.getIntF());
+        when(resultSet.getTime(8)).thenReturn(ex.getTimeF());
+        when(resultSet.getTimestamp(9)).thenReturn(ex.getTimestampF());
+        when(resultSet.getDate(10)).thenReturn(ex.getDateF());
+        when(resultSet.getBoolean(11)).thenReturn(ex.getBoolFB());
+        when(resultSet.getBoolean(12)).thenReturn(ex.isBoolF());
+        when(resultSet.getLong(13)).thenReturn(ex.getLongFL());
+        when(resultSet.getLong(14)).thenReturn(ex.getLongF());
+
+        assertEquals(ex, fn.bind(resultSet).apply(resultSet));
+    }
+
+}
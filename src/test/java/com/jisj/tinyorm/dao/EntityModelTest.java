@@ -0,0 +1,65 @@
+package com.jisj.tinyorm.dao;
+
+import jakarta.persistence.Id;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityModelTest {
+
+    @Test
+    void of() {
+        assertSame(EntityModel.of(TestEntityDefault.class), EntityModel.of(TestEntityDefault.class));
+    }
+
+    @Test
+    void properties() {
+        EntityModel model = EntityModel.of(TestEntityDefault.class);
+        assertEquals(List.of("recId", "name"), model.properties().stream()
+                .map(EntityModel.Property::columnName)
+                .toList());
+        assertEquals(List.of("name"), model.updatable().stream()
+                .map(EntityModel.Property::columnName)
+                .toList());
+    }
+
+    @Test
+    void id() {
+        assertEquals("RecID", EntityModel.of(TestEntityAnnotated.class).id().columnName());
+        assertEquals(5L, EntityModel.of(TestEntityAnnotated.class).id()
+                .get(TestEntityAnnotated.builder().id(5L).build()));
+        assertThrowsExactly(IllegalStateException.class, () -> EntityModel.of(TestEntityMapper.class).id());
+    }
+
+    @Test
+    void staticField() {
+        assertEquals(List.of("id", "name"), EntityModel.of(StaticField.class).properties().stream()
+                .map(EntityModel.Property::columnName)
+                .toList());
+    }
+
+    public static class StaticField {
+        static int instances;
+        @Id
+        private Long id;
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
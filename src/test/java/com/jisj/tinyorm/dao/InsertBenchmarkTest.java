@@ -0,0 +1,58 @@
+package com.jisj.tinyorm.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.jisj.tinyorm.dao.TestsEnv.getH2DataSource;
+import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares JDBC batches with multi-row VALUES statements in {@link BaseDAO#insertAll(java.util.Collection)}.
+ * Run with {@code mvn test -Dtest=InsertBenchmarkTest -Dtinyorm.benchmark=true}
+ */
+@EnabledIfSystemProperty(named = "tinyorm.benchmark", matches = "true")
+class InsertBenchmarkTest {
+    private static final int ROWS = 100_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void sqlite() throws SQLException {
+        benchmark("SQLite", getSqliteDataSource());
+    }
+
+    @Test
+    void h2() throws SQLException {
+        benchmark("H2", getH2DataSource());
+    }
+
+    private static void benchmark(String name, DataSource ds) throws SQLException {
+        List<TestEntityBench> entities = IntStream.rangeClosed(1, ROWS)
+                .mapToObj(i -> TestEntityBench.builder().id(i).name("Bench-" + i).amount(i * 10L).build())
+                .toList();
+        BaseDAO<TestEntityBench, Integer> dao = new BaseDAO<>(ds, TestEntityBench.class);
+        for (int round = 0; round <= ROUNDS; round++) {
+            long batch = insert(dao, entities, false);
+            long values = insert(dao, entities, true);
+            if (round > 0)
+                System.out.printf("%s round %d: addBatch %d ms, multi-row VALUES %d ms%n",
+                        name, round, batch / 1_000_000, values / 1_000_000);
+        }
+        dao.dropTable();
+    }
+
+    private static long insert(BaseDAO<TestEntityBench, Integer> dao, List<TestEntityBench> entities,
+                               boolean multiRow) throws SQLException {
+        dao.dropTable();
+        dao.createTable();
+        dao.setMultiRowInsert(multiRow);
+        long start = System.nanoTime();
+        assertEquals(entities.size(), dao.insertAll(entities));
+        return System.nanoTime() - start;
+    }
+}
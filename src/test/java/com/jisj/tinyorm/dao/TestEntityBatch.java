@@ -0,0 +1,24 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.annotation.CrudDdl;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Class for batch operations
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@CrudDdl(createTableSql = "CREATE TABLE %s (id INTEGER UNIQUE, name VARCHAR(255), PRIMARY KEY(id AUTOINCREMENT))",
+        insertSql = "INSERT INTO %s (id, name) VALUES (?,?)",
+        updateSql = "UPDATE %s SET name = ?")
+public class TestEntityBatch {
+    @Id
+    private Integer id;
+    private String name;
+}
@@ -0,0 +1,24 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.annotation.CrudDdl;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Class for insert benchmarks
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@CrudDdl(createTableSql = "CREATE TABLE %s (id INTEGER PRIMARY KEY, name VARCHAR(255), amount BIGINT)",
+        insertSql = "INSERT INTO %s (id, name, amount) VALUES (?,?,?)")
+public class TestEntityBench {
+    @Id
+    private Integer id;
+    private String name;
+    private long amount;
+}
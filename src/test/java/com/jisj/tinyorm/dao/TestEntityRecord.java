@@ -0,0 +1,14 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.annotation.CrudDdl;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+
+/**
+ * Record entity
+ */
+@CrudDdl(createTableSql = "CREATE TABLE %s (recId BIGINT UNIQUE, name VARCHAR(255), score DOUBLE)",
+        insertSql = "INSERT INTO %s (recId, name, score) VALUES (?,?,?)",
+        updateSql = "UPDATE %s SET name = ?, score = ?")
+public record TestEntityRecord(@Id @Column(name = "recId") Long id, String name, double score) {
+}
@@ -0,0 +1,108 @@
+package com.jisj.tinyorm.dao;
+
+import com.jisj.tinyorm.Query;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnitOfWorkTest {
+    private static DataSource ds;
+    private static BaseDAO<TestEntityBatch, Integer> dao;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        ds = getSqliteDataSource();
+        dao = new BaseDAO<>(ds, TestEntityBatch.class);
+        dao.dropTable();
+        dao.createTable();
+    }
+
+    private static TestEntityBatch entity(int id, String name) {
+        return TestEntityBatch.builder().id(id).name(name).build();
+    }
+
+    @Test
+    void flush() throws SQLException {
+        UnitOfWork.inUnitOfWork(ds, uow -> {
+            for (int i = 1; i <= 5; i++)
+                assertEquals(1, dao.insert(entity(i, "Uow-" + i)));
+            assertEquals(1, dao.update(entity(1, "Uow-1-updated")));
+            assertEquals(1, dao.insert(entity(6, "Uow-6")));
+            assertEquals(1, dao.delete(2));
+            assertEquals(8, uow.getPendingCount());
+
+            assertEquals("Uow-1-updated", dao.getById(1).orElseThrow().getName());
+            assertEquals(0, uow.getPendingCount());
+
+            dao.update(entity(3, "Uow-3-updated"));
+            UnitOfWork.inUnitOfWork(ds, inner -> {
+                assertSame(uow, inner);
+                return dao.delete(4);
+            });
+            return null;
+        });
+        assertTrue(UnitOfWork.current(ds).isEmpty());
+        assertEquals(List.of("Uow-1-updated", "Uow-3-updated", "Uow-5", "Uow-6"),
+                dao.getAll().map(TestEntityBatch::getName).toList());
+    }
+
+    @Test
+    void rollback() {
+        assertThrows(SQLException.class, () -> UnitOfWork.inUnitOfWork(ds, uow -> {
+            dao.insert(entity(100, "Uow-100"));
+            dao.insert(entity(100, "Uow-100-duplicate"));
+            return null;
+        }));
+        assertFalse(dao.getById(100).isPresent());
+    }
+
+    @Test
+    void query() throws SQLException {
+        UnitOfWork.inUnitOfWork(ds, uow -> {
+            dao.insert(entity(200, "Uow-200"));
+            assertEquals(1, uow.getPendingCount());
+            Query<String> query = new Query<>(ds, rs -> rs.getString(1),
+                    "SELECT name FROM TestEntityBatch WHERE id=?", 200);
+            assertEquals(List.of("Uow-200"), query.toList());
+            assertEquals(0, uow.getPendingCount());
+            uow.getTransaction().setRollbackOnly();
+            return null;
+        });
+        assertFalse(dao.getById(200).isPresent());
+    }
+
+    @Test
+    void scan() throws SQLException {
+        UnitOfWork.inUnitOfWork(ds, uow -> {
+            dao.insert(entity(300, "Uow-300"));
+            try (Stream<TestEntityBatch> entities = dao.scan(2)) {
+                assertTrue(entities.noneMatch(entity -> entity.getId() == 300));
+            }
+            assertEquals(1, uow.getPendingCount());
+            uow.getTransaction().setRollbackOnly();
+            return null;
+        });
+        assertFalse(dao.getById(300).isPresent());
+    }
+
+    @Test
+    void batchLoader() throws SQLException {
+        BatchLoader<TestEntityBatch, Integer> loader = new BatchLoader<>(dao, Duration.ofMinutes(1), 10);
+        UnitOfWork.inUnitOfWork(ds, uow -> {
+            dao.insert(entity(400, "Uow-400"));
+            assertEquals("Uow-400", loader.load(400).join().orElseThrow().getName());
+            assertEquals(0, uow.getPendingCount());
+            uow.getTransaction().setRollbackOnly();
+            return null;
+        });
+        assertFalse(dao.getById(400).isPresent());
+    }
+}
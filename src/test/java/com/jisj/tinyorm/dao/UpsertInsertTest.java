@@ -0,0 +1,33 @@
+package com.jisj.tinyorm.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpsertInsertTest {
+
+    @Test
+    void sql() {
+        UpsertInsert statements = UpsertInsert.of("INSERT INTO T (id, name, amount, created) VALUES (?, ?, 0, now())", "id");
+        assertEquals("MERGE INTO T (id, name, amount, created) KEY(id) VALUES (?, ?, 0, now())",
+                statements.sql(Dialect.H2));
+        assertEquals("INSERT INTO T (id, name, amount, created) VALUES (?, ?, 0, now()) ON CONFLICT(id) " +
+                        "DO UPDATE SET name=excluded.name, amount=excluded.amount, created=excluded.created",
+                statements.sql(Dialect.SQLITE));
+        assertSame(statements.sql(Dialect.H2), statements.sql(Dialect.H2));
+        assertEquals("MERGE INTO T (id, name) KEY(ID) VALUES (?,'a,b')",
+                UpsertInsert.of("INSERT INTO T (id, name) VALUES (?,'a,b');", "ID").sql(Dialect.H2));
+    }
+
+    @Test
+    void unsupported() {
+        assertThrowsExactly(IllegalStateException.class,
+                () -> UpsertInsert.of("INSERT INTO T (name) VALUES (?)", "id"));
+        assertThrowsExactly(IllegalStateException.class,
+                () -> UpsertInsert.of("INSERT INTO T (id, name) VALUES (?)", "id"));
+        assertThrowsExactly(IllegalStateException.class,
+                () -> UpsertInsert.of("INSERT INTO T (id, name) SELECT id, name FROM S", "id"));
+        assertThrowsExactly(IllegalStateException.class,
+                () -> UpsertInsert.of("INSERT INTO T VALUES (?,?)", "id"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.jisj.tinyorm.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValuesInsertTest {
+
+    @Test
+    void sql() {
+        ValuesInsert values = ValuesInsert.of("INSERT INTO tbl (id, name) VALUES (?,?)");
+        assertEquals(2, values.parametersPerRow());
+        assertEquals("INSERT INTO tbl (id, name) VALUES (?,?)", values.sql(1));
+        assertEquals("INSERT INTO tbl (id, name) VALUES (?,?),(?,?),(?,?)", values.sql(3));
+        assertSame(values.sql(3), values.sql(3));
+        assertEquals("INSERT INTO tbl (a, b, c) values(?,?,?),(?,?,?)",
+                ValuesInsert.of("INSERT INTO tbl (a, b, c) values(?,?,?);").sql(2));
+    }
+
+    @Test
+    void unsupported() {
+        assertThrowsExactly(IllegalStateException.class, () -> ValuesInsert.of("INSERT INTO tbl SELECT * FROM other"));
+        assertThrowsExactly(IllegalStateException.class, () -> ValuesInsert.of("INSERT INTO tbl (id, ts) VALUES (?, now())"));
+    }
+}
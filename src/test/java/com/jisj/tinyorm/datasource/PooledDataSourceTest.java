@@ -0,0 +1,91 @@
+package com.jisj.tinyorm.datasource;
+
+import com.jisj.tinyorm.dao.BaseDAO;
+import com.jisj.tinyorm.dao.DAO;
+import com.jisj.tinyorm.dao.TestEntityGenerateKey;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledDataSourceTest {
+
+    @Test
+    void checkout() throws SQLException {
+        try (PooledDataSource ds = new PooledDataSource(getSqliteDataSource(), 2)) {
+            ds.setAcquireTimeout(Duration.ofMillis(50));
+            Connection con1 = ds.getConnection();
+            Connection con2 = ds.getConnection();
+            assertEquals(2, ds.getActiveCount());
+            assertThrows(SQLTimeoutException.class, ds::getConnection);
+            assertEquals(1, ds.getTimeoutCount());
+
+            Connection physical = con1.unwrap(Connection.class);
+            con1.setAutoCommit(false);
+            con1.close();
+            assertTrue(con1.isClosed());
+            assertThrows(SQLException.class, con1::createStatement);
+            try (Connection con3 = ds.getConnection()) {
+                assertSame(physical, con3.unwrap(Connection.class));
+                assertTrue(con3.getAutoCommit());
+            }
+            con2.close();
+            assertEquals(0, ds.getActiveCount());
+            assertEquals(2, ds.getIdleCount());
+            assertEquals(2, ds.getCreatedCount());
+            assertEquals(3, ds.getAcquireCount());
+        }
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        try (PooledDataSource ds = new PooledDataSource(getSqliteDataSource(), 4)) {
+            DAO<TestEntityGenerateKey, Integer> dao = new BaseDAO<>(ds, TestEntityGenerateKey.class);
+            dao.createTable("CREATE TABLE IF NOT EXISTS TestEntityGenerateKey " +
+                    "(id INTEGER UNIQUE, name VARCHAR(255), PRIMARY KEY(id AUTOINCREMENT))");
+            List<Future<?>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 1000; i++)
+                    results.add(executor.submit(() -> dao.getById(1)));
+            }
+            for (Future<?> result : results)
+                assertDoesNotThrow(() -> result.get());
+            assertEquals(1000 + 1, ds.getAcquireCount());
+            assertTrue(ds.getCreatedCount() <= 4);
+            assertEquals(0, ds.getActiveCount());
+        }
+    }
+
+    @Test
+    void statements() throws SQLException {
+        try (PooledDataSource ds = new PooledDataSource(getSqliteDataSource(), 1)) {
+            ds.setAcquireTimeout(Duration.ofMillis(50));
+            DAO<TestEntityGenerateKey, Integer> dao = new BaseDAO<>(ds, TestEntityGenerateKey.class);
+            dao.createTable("CREATE TABLE IF NOT EXISTS TestEntityGenerateKey " +
+                    "(id INTEGER UNIQUE, name VARCHAR(255), PRIMARY KEY(id AUTOINCREMENT))");
+            for (int i = 0; i < 3; i++)
+                assertDoesNotThrow(() -> dao.getAll().count());
+            assertEquals(0, ds.getActiveCount());
+            assertEquals(1, ds.getCreatedCount());
+
+            PreparedStatement st;
+            try (Connection con = ds.getConnection()) {
+                st = con.prepareStatement("SELECT 1");
+                assertSame(con, st.getConnection());
+            }
+            assertTrue(st.isClosed());
+            assertEquals(1, ds.getIdleCount());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.jisj.tinyorm.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCachingDataSourceTest {
+
+    @Test
+    void cache() throws SQLException {
+        StatementCachingDataSource ds = new StatementCachingDataSource(getSqliteDataSource(), 1);
+        try (Connection con = ds.getConnection()) {
+            for (int i = 1; i <= 3; i++) {
+                try (PreparedStatement st = con.prepareStatement("SELECT ?")) {
+                    st.setInt(1, i);
+                    ResultSet rs = st.executeQuery();
+                    assertTrue(rs.next());
+                    assertEquals(i, rs.getInt(1));
+                    assertSame(con, st.getConnection());
+                }
+            }
+            assertEquals(1, ds.getMissCount());
+            assertEquals(2, ds.getHitCount());
+
+            PreparedStatement st1 = con.prepareStatement("SELECT ?");
+            PreparedStatement st2 = con.prepareStatement("SELECT ?");
+            assertNotSame(st1, st2);
+            st1.close();
+            st2.close();
+            assertTrue(st1.isClosed());
+            assertThrows(SQLException.class, () -> st1.setInt(1, 1));
+            assertEquals(2, ds.getMissCount());
+
+            con.prepareStatement("SELECT 1").close();
+            assertEquals(1, ds.getEvictionCount());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new StatementCachingDataSource(getSqliteDataSource(), 0));
+    }
+
+    @Test
+    void attributes() throws SQLException {
+        StatementCachingDataSource ds = new StatementCachingDataSource(getSqliteDataSource());
+        try (Connection con = ds.getConnection()) {
+            int fetchSize;
+            int maxRows;
+            try (PreparedStatement st = con.prepareStatement("SELECT ?")) {
+                fetchSize = st.getFetchSize();
+                maxRows = st.getMaxRows();
+                st.setFetchSize(fetchSize + 10);
+                st.setMaxRows(maxRows + 5);
+            }
+            try (PreparedStatement st = con.prepareStatement("SELECT ?")) {
+                assertEquals(fetchSize, st.getFetchSize());
+                assertEquals(maxRows, st.getMaxRows());
+                st.setCursorName("cursor");
+            }
+            assertEquals(1, ds.getHitCount());
+            con.prepareStatement("SELECT ?").close();
+            assertEquals(1, ds.getHitCount());
+            assertEquals(2, ds.getMissCount());
+        }
+    }
+}
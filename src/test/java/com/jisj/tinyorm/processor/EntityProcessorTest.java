@@ -0,0 +1,162 @@
+package com.jisj.tinyorm.processor;
+
+import com.jisj.tinyorm.dao.BaseDAO;
+import com.jisj.tinyorm.dao.EntityDescriptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.jisj.tinyorm.dao.TestsEnv.getSqliteDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityProcessorTest {
+    @TempDir
+    Path dir;
+
+    private Path process(String className, String source) throws IOException {
+        Path src = Files.createDirectories(dir.resolve("src/demo"));
+        Path generated = Files.createDirectories(dir.resolve("generated"));
+        Files.writeString(src.resolve(className + ".java"), source);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null,
+                "-proc:only",
+                "-processor", EntityProcessor.class.getName(),
+                "-cp", System.getProperty("java.class.path"),
+                "-s", generated.toString(),
+                src.resolve(className + ".java").toString()));
+        return generated.resolve("demo");
+    }
+
+    private Path compile(String className, String source) throws IOException {
+        Path src = Files.createDirectories(dir.resolve("src/demo"));
+        Path generated = Files.createDirectories(dir.resolve("generated"));
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Files.writeString(src.resolve(className + ".java"), source);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null,
+                "-processor", EntityProcessor.class.getName(),
+                "-cp", System.getProperty("java.class.path"),
+                "-s", generated.toString(),
+                "-d", classes.toString(),
+                src.resolve(className + ".java").toString()));
+        return classes;
+    }
+
+    @Test
+    void classEntity() throws IOException {
+        Path generated = process("Person", """
+                package demo;
+
+                import com.jisj.tinyorm.annotation.CrudDdl;
+                import jakarta.persistence.*;
+
+                @Table(name = "people")
+                @CrudDdl(insertSql = "INSERT INTO %s (pid, name) VALUES (?,?)")
+                public class Person {
+                    @Id
+                    @Column(name = "pid")
+                    private Long id;
+                    private String name;
+                    @Transient
+                    private int tmp;
+                    static int instances;
+
+                    public Long getId() { return id; }
+                    public void setId(Long id) { this.id = id; }
+                    public String getName() { return name; }
+                    public void setName(String name) { this.name = name; }
+                }
+                """);
+        String source = Files.readString(generated.resolve("Person_TinyOrm.java"));
+        assertTrue(source.contains("implements EntityDescriptor<demo.Person>"));
+        assertTrue(source.contains("\"INSERT INTO people (pid, name) VALUES (?,?)\""));
+        assertTrue(source.contains("entity.setId(rs.getLong(\"pid\"));"));
+        assertTrue(source.contains("st.setNull(position++, Types.VARCHAR);"));
+        assertFalse(source.contains("tmp"));
+        assertFalse(source.contains("instances"));
+    }
+
+    @Test
+    void recordEntity() throws IOException {
+        Path generated = process("Item", """
+                package demo;
+
+                import jakarta.persistence.Id;
+
+                public record Item(@Id long id, String name) {
+                }
+                """);
+        String source = Files.readString(generated.resolve("Item_TinyOrm.java"));
+        assertTrue(source.contains("return new demo.Item("));
+        assertTrue(source.contains("st.setLong(position++, entity.id());"));
+    }
+
+    @Test
+    void descriptorDAO() throws Exception {
+        Path classes = compile("Account", """
+                package demo;
+
+                import com.jisj.tinyorm.annotation.CrudDdl;
+                import jakarta.persistence.*;
+
+                @Table(name = "ProcessorAccount")
+                @CrudDdl(insertSql = "INSERT INTO %s (id, name) VALUES (?,?)")
+                public class Account {
+                    @Id
+                    private Integer id;
+                    private String name;
+
+                    public Integer getId() { return id; }
+                    public void setId(Integer id) { this.id = id; }
+                    public String getName() { return name; }
+                    public void setName(String name) { this.name = name; }
+                }
+                """);
+        assertTrue(Files.exists(classes.resolve("demo/Account_TinyOrm.class")));
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> clazz = loader.loadClass("demo.Account");
+            EntityDescriptor<?> descriptor = (EntityDescriptor<?>) loader.loadClass("demo.Account_TinyOrm")
+                    .getConstructor().newInstance();
+            assertEquals("id", descriptor.idFieldName());
+
+            BaseDAO<Object, Integer> dao = new BaseDAO<>(getSqliteDataSource(), clazz);
+            assertSame(descriptor.mapper(), dao.getMapper());
+            dao.dropTable();
+            dao.createTable("CREATE TABLE ProcessorAccount (id INTEGER PRIMARY KEY, name VARCHAR(255))");
+            Object account = clazz.getConstructor().newInstance();
+            clazz.getMethod("setId", Integer.class).invoke(account, 1);
+            clazz.getMethod("setName", String.class).invoke(account, "Generated");
+            assertEquals(1, dao.insert(account));
+            Object read = dao.getById(1).orElseThrow();
+            assertEquals(1, clazz.getMethod("getId").invoke(read));
+            assertEquals("Generated", clazz.getMethod("getName").invoke(read));
+            assertTrue(dao.query("SELECT id FROM ProcessorAccount WHERE id=?", 2).isEmpty());
+            assertThrowsExactly(IllegalStateException.class, () -> dao.update(clazz.getConstructor().newInstance()));
+            dao.dropTable();
+        }
+    }
+
+    @Test
+    void unsupportedEntity() throws IOException {
+        Path generated = process("Secret", """
+                package demo;
+
+                import jakarta.persistence.Id;
+
+                public class Secret {
+                    @Id
+                    private long id;
+
+                    private long getId() { return id; }
+                }
+                """);
+        assertFalse(Files.exists(generated.resolve("Secret_TinyOrm.java")));
+    }
+}
@@ -0,0 +1,91 @@
+package com.jisj.tinyorm.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcTest {
+    @Mock
+    PreparedStatement st;
+    @Mock
+    ParameterMetaData metaData;
+    @Mock
+    ResultSet rs;
+    @Mock
+    Connection con;
+
+    @Test
+    void assertParameterCount() throws SQLException {
+        final String SQL = "SELECT * FROM JdbcTest WHERE id = ? AND name = ?";
+        when(st.getParameterMetaData()).thenReturn(metaData);
+        when(metaData.getParameterCount()).thenReturn(2);
+
+        Jdbc.assertParameterCount(SQL, st, 2);
+        Jdbc.assertParameterCount(SQL, st, 2);
+        Jdbc.setParameters(SQL, st, 1L, "name");
+        assertThrows(IllegalStateException.class, () -> Jdbc.assertParameterCount(SQL, st, 1));
+
+        verify(st, times(1)).getParameterMetaData();
+        verify(st).setLong(1, 1L);
+        verify(st).setObject(2, "name");
+    }
+
+    @Test
+    void parameterCountCacheSize() throws SQLException {
+        final String SQL = "SELECT ? FROM JdbcTest WHERE id = ";
+        when(st.getParameterMetaData()).thenReturn(metaData);
+        when(metaData.getParameterCount()).thenReturn(1);
+        Jdbc.PARAMETER_COUNTS.clear();
+
+        for (int i = 0; i < Jdbc.PARAMETER_COUNT_CACHE_SIZE; i++)
+            Jdbc.assertParameterCount(SQL + i, st, 1);
+        Jdbc.assertParameterCount(SQL + 0, st, 1);
+        verify(st, times(Jdbc.PARAMETER_COUNT_CACHE_SIZE)).getParameterMetaData();
+
+        Jdbc.assertParameterCount(SQL + Jdbc.PARAMETER_COUNT_CACHE_SIZE, st, 1);
+        Jdbc.assertParameterCount(SQL + Jdbc.PARAMETER_COUNT_CACHE_SIZE, st, 1);
+        verify(st, times(Jdbc.PARAMETER_COUNT_CACHE_SIZE + 1)).getParameterMetaData();
+
+        Jdbc.assertParameterCount(SQL + 0, st, 1);
+        verify(st, times(Jdbc.PARAMETER_COUNT_CACHE_SIZE + 2)).getParameterMetaData();
+    }
+
+    @Test
+    void execToStreamClose() throws SQLException {
+        when(st.executeQuery()).thenReturn(rs);
+        when(st.getConnection()).thenReturn(con);
+        when(rs.next()).thenReturn(true);
+        when(rs.getInt(1)).thenReturn(1);
+
+        try (Stream<Integer> stream = Jdbc.execToStream(st, r -> r.getInt(1))) {
+            assertEquals(1, stream.findFirst().orElseThrow());
+        }
+        verify(rs).close();
+        verify(st).close();
+        verify(con).close();
+    }
+
+    @Test
+    void execToStreamEnd() throws SQLException {
+        when(st.executeQuery()).thenReturn(rs);
+        when(st.getConnection()).thenReturn(con);
+        when(rs.next()).thenReturn(true, true, false);
+
+        assertEquals(2, Jdbc.execToStream(st, r -> r.getInt(1)).count());
+        verify(rs).close();
+        verify(st).close();
+        verify(con).close();
+    }
+}